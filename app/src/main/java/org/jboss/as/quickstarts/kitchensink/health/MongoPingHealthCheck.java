@@ -0,0 +1,109 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.health;
+
+import com.mongodb.client.MongoClient;
+import io.quarkus.arc.profile.UnlessBuildProfile;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.jboss.logging.Logger;
+
+/**
+ * MongoDB readiness based on a cached {@code ping}.
+ *
+ * <p>Probes never wait for MongoDB: they are answered from the last ping result, and at most one
+ * ping is sent per {@code kitchensink.health.mongo.interval}, in the background, no matter how many
+ * instances of the probe run concurrently. A ping that has been outstanding for longer than {@code
+ * kitchensink.health.mongo.timeout} reports MongoDB as down. This replaces the built-in MongoDB
+ * check, which pings on every probe.
+ */
+@UnlessBuildProfile("test")
+@Readiness
+@ApplicationScoped
+public class MongoPingHealthCheck implements HealthCheck {
+
+    private static final Logger LOG = Logger.getLogger(MongoPingHealthCheck.class);
+    private static final Document PING = new Document("ping", 1);
+
+    private record PingResult(boolean up, long finishedAt, long latencyMillis, String error) {}
+
+    @Inject MongoClient mongoClient;
+
+    @ConfigProperty(name = "kitchensink.health.mongo.interval", defaultValue = "5s")
+    Duration interval;
+
+    @ConfigProperty(name = "kitchensink.health.mongo.timeout", defaultValue = "3s")
+    Duration timeout;
+
+    private final AtomicBoolean pinging = new AtomicBoolean();
+    private volatile long pingStartedAt;
+    private volatile PingResult last;
+
+    @Override
+    public HealthCheckResponse call() {
+        long now = System.nanoTime();
+        PingResult result = last;
+        if (result == null || now - result.finishedAt() >= interval.toNanos()) {
+            if (pinging.compareAndSet(false, true)) {
+                pingStartedAt = now;
+                Infrastructure.getDefaultWorkerPool().execute(this::ping);
+            }
+        }
+
+        HealthCheckResponseBuilder response = HealthCheckResponse.named("mongodb");
+        if (pinging.get() && now - pingStartedAt > timeout.toNanos()) {
+            return response.down()
+                    .withData("error", "ping outstanding for more than " + timeout)
+                    .build();
+        }
+        if (result == null) {
+            return response.down().withData("error", "first ping pending").build();
+        }
+        response.status(result.up())
+                .withData("latencyMs", result.latencyMillis())
+                .withData("ageMs", (now - result.finishedAt()) / 1_000_000);
+        if (result.error() != null) {
+            response.withData("error", result.error());
+        }
+        return response.build();
+    }
+
+    private void ping() {
+        long start = System.nanoTime();
+        try (MongoOperation.Scope scope = MongoOperation.start("healthPing")) {
+            mongoClient.getDatabase("admin").runCommand(PING);
+            long end = System.nanoTime();
+            last = new PingResult(true, end, (end - start) / 1_000_000, null);
+        } catch (RuntimeException e) {
+            long end = System.nanoTime();
+            LOG.debugf(e, "MongoDB ping failed");
+            last = new PingResult(false, end, (end - start) / 1_000_000, e.getMessage());
+        } finally {
+            pinging.set(false);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.health;
+
+/**
+ * An internal queue or pool whose fill level is reported by the readiness check.
+ *
+ * <p>Implementations are CDI beans. {@link SaturationHealthCheck} reports the application not ready
+ * while any of them is at or above the configured threshold, so a load balancer stops routing new
+ * requests to an instance that can no longer keep up.
+ */
+public interface Saturable {
+
+    /** Name used in the health check data. */
+    String saturationName();
+
+    /** Current fill level, from 0 (idle) to 1 (full). */
+    double saturation();
+}
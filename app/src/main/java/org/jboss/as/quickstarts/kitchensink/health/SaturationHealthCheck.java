@@ -0,0 +1,51 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.health;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+
+/** Reports the application not ready while any {@link Saturable} queue or pool is (nearly) full. */
+@Readiness
+@ApplicationScoped
+public class SaturationHealthCheck implements HealthCheck {
+
+    @Inject Instance<Saturable> saturables;
+
+    @ConfigProperty(name = "kitchensink.health.saturation-threshold", defaultValue = "0.95")
+    double threshold;
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder response = HealthCheckResponse.named("saturation");
+        boolean up = true;
+        for (Saturable saturable : saturables) {
+            double saturation = saturable.saturation();
+            response.withData(saturable.saturationName(), String.format("%.2f", saturation));
+            if (saturation >= threshold) {
+                up = false;
+            }
+        }
+        return response.status(up).build();
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.health;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+import org.jboss.as.quickstarts.kitchensink.service.StartupTracker;
+
+/**
+ * Reports the application ready only once all startup tasks (indexes, sequence, seeding, cache
+ * warm-up) have finished successfully. The response data carries the duration of each startup phase
+ * in ms.
+ */
+@Readiness
+@ApplicationScoped
+public class StartupReadinessCheck implements HealthCheck {
+
+    @Inject StartupTracker startupTracker;
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder response =
+                HealthCheckResponse.named("startup-tasks")
+                        .status(
+                                startupTracker.isComplete()
+                                        && startupTracker.failedTasks().isEmpty());
+        startupTracker
+                .phaseDurationsMillis()
+                .forEach((phase, millis) -> response.withData(phase + ".ms", millis));
+        if (!startupTracker.failedTasks().isEmpty()) {
+            response.withData("failed", String.join(",", startupTracker.failedTasks()));
+        }
+        return response.build();
+    }
+}
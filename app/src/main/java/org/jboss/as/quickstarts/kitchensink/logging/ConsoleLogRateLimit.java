@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.logging;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Singleton;
+import java.util.logging.Filter;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jboss.logmanager.ExtHandler;
+import org.jboss.logmanager.LogContext;
+import org.jboss.logmanager.handlers.AsyncHandler;
+import org.jboss.logmanager.handlers.ConsoleHandler;
+
+/**
+ * Puts {@link RateLimitingLogFilter} in front of the console handler's queue.
+ *
+ * <p>A filter configured with {@code quarkus.log.console.filter} is installed on the console
+ * handler behind the asynchronous queue, so records would be queued first and only dropped on the
+ * writer thread; with {@code overflow=block} callers still wait for room for lines that are then
+ * discarded. Installed on the {@link AsyncHandler} itself, the filter runs on the logging thread
+ * and over-limit records never reach the queue. Without {@code quarkus.log.console.async} it goes
+ * on the console handler.
+ */
+@Singleton
+public class ConsoleLogRateLimit {
+
+    private static final Logger LOG = Logger.getLogger(ConsoleLogRateLimit.class);
+
+    /** The rate limit in front of whatever filter the handler already had. */
+    record Chained(Filter first, RateLimitingLogFilter rateLimit) implements Filter {
+        @Override
+        public boolean isLoggable(LogRecord record) {
+            return first.isLoggable(record) && rateLimit.isLoggable(record);
+        }
+    }
+
+    @ConfigProperty(name = "kitchensink.log.rate-limit", defaultValue = "")
+    String rateLimit;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (rateLimit.isBlank()) {
+            return;
+        }
+        int installed =
+                install(
+                        LogContext.getLogContext().getLogger("").getHandlers(),
+                        new RateLimitingLogFilter(rateLimit));
+        if (installed == 0) {
+            LOG.warn("No console log handler found, the log rate limit is not applied");
+        } else {
+            LOG.infof("Log rate limit installed on %d console handler(s)", installed);
+        }
+    }
+
+    /** Installs the filter on every console handler, or the async handler queueing for it. */
+    static int install(Handler[] handlers, RateLimitingLogFilter filter) {
+        int installed = 0;
+        for (Handler handler : handlers) {
+            if (handler instanceof ConsoleHandler
+                    || (handler instanceof AsyncHandler async && feedsConsole(async))) {
+                Filter existing = handler.getFilter();
+                if (existing instanceof Chained chained) {
+                    existing = chained.first();
+                }
+                handler.setFilter(
+                        existing == null || existing instanceof RateLimitingLogFilter
+                                ? filter
+                                : new Chained(existing, filter));
+                installed++;
+            } else if (handler instanceof ExtHandler parent) {
+                installed += install(parent.getHandlers(), filter);
+            }
+        }
+        return installed;
+    }
+
+    private static boolean feedsConsole(ExtHandler handler) {
+        for (Handler nested : handler.getHandlers()) {
+            if (nested instanceof ConsoleHandler
+                    || (nested instanceof ExtHandler parent && feedsConsole(parent))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.logging;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Filter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Caps how many records per second each configured logger category may emit.
+ *
+ * <p>{@code kitchensink.log.rate-limit} is a comma separated list of {@code category=records per
+ * second}; a logger uses the longest matching category and loggers without a match are not limited.
+ * WARN and above are never dropped. Dropped records are counted in {@link #dropped()} and exported
+ * as the {@code log.lines.dropped} metric by {@link LoggingMetrics}. {@link ConsoleLogRateLimit}
+ * installs it in front of the console handler.
+ */
+public final class RateLimitingLogFilter implements Filter {
+
+    private static final LongAdder DROPPED = new LongAdder();
+
+    /** Records per second a category may emit, counted in fixed one-second windows. */
+    static final class Window {
+        final int limit;
+        final AtomicInteger count = new AtomicInteger();
+        volatile long second = Long.MIN_VALUE;
+
+        Window(int limit) {
+            this.limit = limit;
+        }
+
+        boolean tryAcquire(long nowMillis) {
+            long current = nowMillis / 1000;
+            if (current != second) {
+                // Racy reset: at worst a few extra records pass at a window boundary.
+                second = current;
+                count.set(0);
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+
+    private static final Window UNLIMITED = new Window(Integer.MAX_VALUE);
+
+    private final List<Map.Entry<String, Integer>> limits;
+    private final Map<String, Window> windowsByLogger = new ConcurrentHashMap<>();
+    private final Map<String, Window> windowsByCategory = new ConcurrentHashMap<>();
+
+    public RateLimitingLogFilter(String rateLimit) {
+        limits = parse(rateLimit);
+    }
+
+    static List<Map.Entry<String, Integer>> parse(String rateLimit) {
+        List<Map.Entry<String, Integer>> parsed = new ArrayList<>();
+        for (String rule : rateLimit.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            int eq = rule.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Invalid log rate limit '" + rule + "'");
+            }
+            parsed.add(
+                    Map.entry(
+                            rule.substring(0, eq).trim(),
+                            Integer.parseInt(rule.substring(eq + 1).trim())));
+        }
+        // Longest category first, so the most specific rule wins.
+        parsed.sort(
+                Comparator.comparingInt((Map.Entry<String, Integer> e) -> e.getKey().length())
+                        .reversed());
+        return parsed;
+    }
+
+    /** Total number of records dropped by all instances since startup. */
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+
+    @Override
+    public boolean isLoggable(LogRecord record) {
+        if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+            return true;
+        }
+        String loggerName = record.getLoggerName() == null ? "" : record.getLoggerName();
+        Window window = windowsByLogger.computeIfAbsent(loggerName, this::windowFor);
+        if (window == UNLIMITED || window.tryAcquire(record.getMillis())) {
+            return true;
+        }
+        DROPPED.increment();
+        return false;
+    }
+
+    private Window windowFor(String loggerName) {
+        for (Map.Entry<String, Integer> limit : limits) {
+            String category = limit.getKey();
+            if (loggerName.equals(category) || loggerName.startsWith(category + ".")) {
+                // Loggers under the same category share its budget.
+                return windowsByCategory.computeIfAbsent(
+                        category, name -> new Window(limit.getValue()));
+            }
+        }
+        return UNLIMITED;
+    }
+}
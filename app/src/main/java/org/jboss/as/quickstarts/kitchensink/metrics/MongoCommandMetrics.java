@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.metrics;
+
+import com.mongodb.connection.ServerType;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * Latency histogram of every MongoDB command, exported as {@code mongodb.command} and tagged by
+ * command, collection, logical operation (see {@link MongoOperation}) and status. Successful reads
+ * are also counted in {@code mongodb.reads}, by operation and by the kind of replica set member
+ * that served them ({@code primary} or {@code secondary}), to show where read routing sends them.
+ *
+ * <p>Quarkus registers {@link CommandListener} beans on the MongoDB client automatically.
+ */
+@ApplicationScoped
+public class MongoCommandMetrics implements CommandListener {
+
+    private record Key(String command, String collection, String operation, String status) {}
+
+    private record InFlight(String command, String collection, String operation) {}
+
+    private record ReadKey(String operation, String servedBy) {}
+
+    private static final Set<String> READ_COMMANDS =
+            Set.of("find", "getMore", "aggregate", "count", "distinct");
+
+    @Inject MeterRegistry registry;
+
+    private final Map<Integer, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<ReadKey, Counter> reads = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        // Started events are published on the thread that issued the command, so the operation
+        // is still in scope here; the completion events may not be.
+        inFlight.put(
+                event.getRequestId(),
+                new InFlight(
+                        event.getCommandName(),
+                        collectionName(event.getCommandName(), event.getCommand()),
+                        MongoOperation.current()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        InFlight command =
+                record(event.getRequestId(), "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+        if (command != null && READ_COMMANDS.contains(command.command())) {
+            ReadKey key =
+                    new ReadKey(
+                            command.operation(),
+                            servedBy(event.getConnectionDescription().getServerType()));
+            reads.computeIfAbsent(key, this::readCounter).increment();
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event.getRequestId(), "failure", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private InFlight record(int requestId, String status, long nanos) {
+        InFlight command = inFlight.remove(requestId);
+        if (command == null) {
+            return null;
+        }
+        Key key = new Key(command.command(), command.collection(), command.operation(), status);
+        timers.computeIfAbsent(key, this::timer).record(nanos, TimeUnit.NANOSECONDS);
+        return command;
+    }
+
+    private Timer timer(Key key) {
+        return Timer.builder("mongodb.command")
+                .description("Latency of MongoDB commands")
+                .tag("command", key.command())
+                .tag("collection", key.collection())
+                .tag("operation", key.operation())
+                .tag("status", key.status())
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter readCounter(ReadKey key) {
+        return Counter.builder("mongodb.reads")
+                .description("Successful MongoDB reads by the member that served them")
+                .tag("operation", key.operation())
+                .tag("served_by", key.servedBy())
+                .register(registry);
+    }
+
+    static String servedBy(ServerType type) {
+        return switch (type) {
+            case REPLICA_SET_PRIMARY -> "primary";
+            case REPLICA_SET_SECONDARY -> "secondary";
+            case STANDALONE -> "standalone";
+            case SHARD_ROUTER -> "mongos";
+            default -> "other";
+        };
+    }
+
+    /**
+     * Most commands carry the collection name as the value of their first field ({@code find:
+     * "members"}); {@code getMore} carries it in {@code collection}.
+     */
+    static String collectionName(String commandName, BsonDocument command) {
+        BsonValue value = command.get(commandName);
+        if (value != null && value.isString()) {
+            return value.asString().getValue();
+        }
+        BsonValue collection = command.get("collection");
+        if (collection != null && collection.isString()) {
+            return collection.asString().getValue();
+        }
+        return "none";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.metrics;
+
+/**
+ * Names the logical operation (e.g. {@code findByEmail}) that the MongoDB commands issued by the
+ * current thread belong to, for the {@code operation} tag of {@link MongoCommandMetrics}.
+ *
+ * <pre>
+ * try (MongoOperation.Scope scope = MongoOperation.start("findByEmail")) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class MongoOperation {
+
+    /** Operation tag of commands issued outside any scope. */
+    public static final String NONE = "other";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private MongoOperation() {}
+
+    /** Makes {@code name} the current operation until the returned scope is closed. */
+    public static Scope start(String name) {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(name);
+        return scope;
+    }
+
+    public static String current() {
+        String name = CURRENT.get();
+        return name != null ? name : NONE;
+    }
+
+    /** Restores the enclosing operation when closed. */
+    public static final class Scope implements AutoCloseable {
+        private final String previous;
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
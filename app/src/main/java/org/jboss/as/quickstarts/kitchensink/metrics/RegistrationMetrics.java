@@ -0,0 +1,171 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Per-phase latency of member registrations.
+ *
+ * <p>Each registration records {@code members.registration.phase} (tagged by {@code phase} and
+ * {@code outcome}) for every phase it went through, and {@code members.registration.duration}
+ * (tagged by {@code outcome}) for the whole attempt. The outcome is only known at the end, so phase
+ * durations are kept on a {@link Timing} until {@link Timing#finish(Outcome)}. Both timers publish
+ * percentile histograms, plus the SLO buckets from {@code kitchensink.metrics.registration.slo}.
+ */
+@ApplicationScoped
+public class RegistrationMetrics {
+
+    public enum Phase {
+        VALIDATION("validation"),
+        EMAIL_CHECK("email-check"),
+        SEQUENCE("sequence"),
+        PERSIST("persist"),
+        EVENT("event");
+
+        final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum Outcome {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        ERROR
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    /** The timing of the registration running on this thread, shared by nested callers. */
+    private final ThreadLocal<Timing> current = new ThreadLocal<>();
+
+    @Inject MeterRegistry registry;
+
+    @ConfigProperty(
+            name = "kitchensink.metrics.registration.slo",
+            defaultValue = "5ms,10ms,25ms,50ms,100ms,250ms,500ms,1s")
+    List<Duration> slo;
+
+    private Timer[][] phaseTimers;
+    private Timer[] totalTimers;
+
+    @PostConstruct
+    void init() {
+        Duration[] buckets = slo.toArray(Duration[]::new);
+        phaseTimers = new Timer[PHASES.length][OUTCOMES.length];
+        totalTimers = new Timer[OUTCOMES.length];
+        for (Outcome outcome : OUTCOMES) {
+            String outcomeTag = outcome.name().toLowerCase();
+            for (Phase phase : PHASES) {
+                phaseTimers[phase.ordinal()][outcome.ordinal()] =
+                        Timer.builder("members.registration.phase")
+                                .description("Duration of one phase of a member registration")
+                                .tag("phase", phase.tag)
+                                .tag("outcome", outcomeTag)
+                                .publishPercentileHistogram()
+                                .serviceLevelObjectives(buckets)
+                                .register(registry);
+            }
+            totalTimers[outcome.ordinal()] =
+                    Timer.builder("members.registration.duration")
+                            .description("Duration of a member registration attempt")
+                            .tag("outcome", outcomeTag)
+                            .publishPercentileHistogram()
+                            .serviceLevelObjectives(buckets)
+                            .register(registry);
+        }
+    }
+
+    /**
+     * Starts timing a registration on the current thread, or joins the one already running there.
+     * Every call must be paired with {@link Timing#finish(Outcome)}; only the outermost finish
+     * records, with its outcome.
+     */
+    public Timing begin() {
+        Timing timing = current.get();
+        if (timing == null) {
+            timing = new Timing();
+            current.set(timing);
+        }
+        timing.depth++;
+        return timing;
+    }
+
+    /** Phase durations of one registration attempt. Confined to the thread that began it. */
+    public final class Timing {
+
+        private final long startNanos = System.nanoTime();
+        private final long[] phaseNanos = new long[PHASES.length];
+        private int depth;
+        private Phase openPhase;
+        private long openPhaseStart;
+
+        private Timing() {
+            Arrays.fill(phaseNanos, -1L);
+        }
+
+        /** Starts a phase, ending the one still open, if any. */
+        public void start(Phase phase) {
+            long now = System.nanoTime();
+            closeOpenPhase(now);
+            openPhase = phase;
+            openPhaseStart = now;
+        }
+
+        public void end() {
+            closeOpenPhase(System.nanoTime());
+        }
+
+        public void finish(Outcome outcome) {
+            long now = System.nanoTime();
+            closeOpenPhase(now);
+            if (--depth > 0) {
+                return;
+            }
+            current.remove();
+            for (Phase phase : PHASES) {
+                long nanos = phaseNanos[phase.ordinal()];
+                if (nanos >= 0) {
+                    phaseTimers[phase.ordinal()][outcome.ordinal()].record(
+                            nanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            totalTimers[outcome.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void closeOpenPhase(long now) {
+            if (openPhase != null) {
+                int index = openPhase.ordinal();
+                phaseNanos[index] = Math.max(phaseNanos[index], 0) + now - openPhaseStart;
+                openPhase = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.metrics;
+
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.micrometer.runtime.HttpServerMetricsTagsContributor;
+import jakarta.inject.Singleton;
+import org.jboss.as.quickstarts.kitchensink.util.WarmUpTraffic;
+
+/**
+ * Tags the HTTP server metrics with {@code traffic=warm-up} for the warm-up's requests and {@code
+ * traffic=client} for everything else, so dashboards and alerts can leave the warm-up out.
+ */
+@Singleton
+public class WarmUpTrafficTags implements HttpServerMetricsTagsContributor {
+
+    private static final Tags WARM_UP = Tags.of("traffic", "warm-up");
+    private static final Tags CLIENT = Tags.of("traffic", "client");
+
+    @Override
+    public Tags contribute(Context context) {
+        return WarmUpTraffic.isWarmUp(context.request().getHeader(WarmUpTraffic.HEADER))
+                ? WARM_UP
+                : CLIENT;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.model;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.slf4j.MDC;
+
+/**
+ * Read-your-writes across primary and secondaries.
+ *
+ * <p>Every reply to a write carries the cluster time it happened at; the latest one seen is kept
+ * here. A client that wrote is handed that time (see {@code ReadYourWritesFilter}) and sends it
+ * back with its following requests. While it is set for the request, {@link MemberRepository} runs
+ * reads in a causally consistent session advanced to it, so whichever member serves the read waits
+ * until it has applied the write first. Like the correlation id, the time is kept in the MDC, which
+ * follows the request across threads.
+ *
+ * <p>Quarkus registers {@link CommandListener} beans on the MongoDB client automatically.
+ */
+@ApplicationScoped
+public class CausalReads implements CommandListener {
+
+    /** MDC key under which the current request's read-after time is stored. */
+    public static final String MDC_KEY = "readAfter";
+
+    private static final Set<String> WRITE_COMMANDS =
+            Set.of("insert", "update", "delete", "findAndModify");
+
+    private final AtomicReference<BsonTimestamp> latestWrite = new AtomicReference<>();
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (!WRITE_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        // Absent on a standalone server, which has no secondaries to lag behind anyway.
+        BsonValue operationTime = event.getResponse().get("operationTime");
+        if (operationTime != null && operationTime.isTimestamp()) {
+            BsonTimestamp time = operationTime.asTimestamp();
+            latestWrite.accumulateAndGet(time, (a, b) -> a == null || b.compareTo(a) > 0 ? b : a);
+        }
+    }
+
+    /** A cluster time at or after every write acknowledged so far, or {@code null}. */
+    public BsonTimestamp latestWrite() {
+        return latestWrite.get();
+    }
+
+    /**
+     * Makes the rest of the current request read after the writes acknowledged so far, including
+     * the ones it just made.
+     */
+    public void readAfterLatestWrite() {
+        BsonTimestamp time = latestWrite.get();
+        if (time != null) {
+            MDC.put(MDC_KEY, format(time));
+        }
+    }
+
+    /**
+     * Whether a read-after time sent by a client can be used: no older than {@code window}, past
+     * which every selectable member has the write anyway, and no later than both the latest write
+     * seen here and the current time. MongoDB rejects an {@code afterClusterTime} beyond its own
+     * cluster time, so a time from the future, sent by mistake or made up, would fail every read.
+     */
+    public boolean accepts(BsonTimestamp time, Duration window, long nowMillis) {
+        long millis = time.getTime() * 1000L;
+        if (millis <= nowMillis - window.toMillis()) {
+            return false;
+        }
+        BsonTimestamp latest = latestWrite.get();
+        return millis <= nowMillis || (latest != null && time.compareTo(latest) <= 0);
+    }
+
+    /** The cluster time the current request must read after, or {@code null}. */
+    public static BsonTimestamp current() {
+        return parse(MDC.get(MDC_KEY));
+    }
+
+    public static String format(BsonTimestamp time) {
+        return time.getTime() + "." + time.getInc();
+    }
+
+    /** Parses {@link #format(BsonTimestamp)}; returns {@code null} for anything else. */
+    public static BsonTimestamp parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        int dot = value.indexOf('.');
+        try {
+            return dot < 0
+                    ? null
+                    : new BsonTimestamp(
+                            Integer.parseUnsignedInt(value.substring(0, dot)),
+                            Integer.parseUnsignedInt(value.substring(dot + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -16,15 +16,54 @@
  */
 package org.jboss.as.quickstarts.kitchensink.model;
 
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.InsertOneOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 import io.quarkus.mongodb.panache.PanacheMongoRepositoryBase;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.conversions.Bson;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.jboss.as.quickstarts.kitchensink.util.RequestIds;
 
+/**
+ * The methods used while serving requests go to the driver directly rather than through Panache
+ * queries, so that every command carries the request's correlation id as its {@code comment} and
+ * shows up with it in the MongoDB profiler and slow query log. Their reads go where {@link
+ * ReadRouting} sends the operation, in a causally consistent session when the request has to see
+ * its own writes (see {@link CausalReads}).
+ */
 @ApplicationScoped
 public class MemberRepository implements PanacheMongoRepositoryBase<Member, Long> {
 
+    private static final ClientSessionOptions CAUSALLY_CONSISTENT =
+            ClientSessionOptions.builder().causallyConsistent(true).build();
+
+    @Inject MongoClient mongoClient;
+
+    @Inject ReadRouting readRouting;
+
     public Optional<Member> findByEmail(String email) {
-        return Optional.ofNullable(find("email", email).firstResult());
+        try (MongoOperation.Scope scope = MongoOperation.start("findByEmail")) {
+            return Optional.ofNullable(
+                    read(Member.class, Filters.eq("email", email), FindIterable::first));
+        }
     }
 
     // Explicitly implement findByIdOptional to ensure correct querying for Long _id
@@ -33,13 +72,134 @@ public class MemberRepository implements PanacheMongoRepositoryBase<Member, Long
             return Optional.empty();
         }
         // Query against the actual MongoDB document field name "_id"
-        return Optional.ofNullable(find("_id", id).firstResult());
+        try (MongoOperation.Scope scope = MongoOperation.start("findById")) {
+            return Optional.ofNullable(
+                    read(Member.class, Filters.eq("_id", id), FindIterable::first));
+        }
+    }
+
+    @Override
+    public List<Member> listAll(Sort sort) {
+        return read(
+                Member.class,
+                new Document(),
+                query -> query.sort(order(sort)).into(new ArrayList<>()));
+    }
+
+    /** Like {@link #findByIdOptional(Long)}, but returns the document as stored, undecoded. */
+    public Optional<RawBsonDocument> findRawById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        try (MongoOperation.Scope scope = MongoOperation.start("findById")) {
+            return Optional.ofNullable(
+                    read(RawBsonDocument.class, Filters.eq("_id", id), FindIterable::first));
+        }
+    }
+
+    /** Like {@link #listAll(Sort)}, but returns the documents as stored, undecoded. */
+    public List<RawBsonDocument> listAllRaw(Sort sort) {
+        return read(
+                RawBsonDocument.class,
+                new Document(),
+                query -> query.sort(order(sort)).into(new ArrayList<>()));
+    }
+
+    /** Up to {@code limit} members with an id greater than {@code id}, in id order. */
+    public List<Member> listAfter(long id, int limit) {
+        try (MongoOperation.Scope scope = MongoOperation.start("listAfter")) {
+            return read(
+                    Member.class,
+                    Filters.gt("_id", id),
+                    query ->
+                            query.sort(Sorts.ascending("_id"))
+                                    .limit(limit)
+                                    .into(new ArrayList<>()));
+        }
+    }
+
+    /** The highest member id in the collection, or -1 if it is empty. */
+    public long maxId() {
+        try (MongoOperation.Scope scope = MongoOperation.start("maxId")) {
+            RawBsonDocument highest =
+                    read(
+                            RawBsonDocument.class,
+                            new Document(),
+                            query ->
+                                    query.projection(Projections.include("_id"))
+                                            .sort(Sorts.descending("_id"))
+                                            .limit(1)
+                                            .first());
+            return highest != null ? highest.getNumber("_id").longValue() : -1L;
+        }
+    }
+
+    @Override
+    public void persist(Member member) {
+        InsertOneOptions options = new InsertOneOptions();
+        String comment = RequestIds.current();
+        if (comment != null) {
+            options.comment(comment);
+        }
+        mongoCollection().insertOne(member, options);
+    }
+
+    /**
+     * Inserts the members with one unordered {@code insertMany}, so a failing document does not
+     * stop the others from being written.
+     *
+     * @throws com.mongodb.MongoBulkWriteException listing the documents that failed, by index
+     */
+    public void persistAll(List<Member> members) {
+        mongoCollection().insertMany(members, new InsertManyOptions().ordered(false));
+    }
+
+    /** The codec Panache uses for members, to decode raw documents when needed after all. */
+    public Codec<Member> memberCodec() {
+        return mongoCollection().getCodecRegistry().get(Member.class);
+    }
+
+    @Override
+    public long count() {
+        return readCollection().countDocuments();
+    }
+
+    /**
+     * The members collection, reading from where {@link ReadRouting} sends the current operation.
+     */
+    public MongoCollection<Member> readCollection() {
+        return mongoCollection().withReadPreference(readRouting.current());
+    }
+
+    /**
+     * Runs {@code query} on the documents matching {@code filter}, routed by {@link ReadRouting}
+     * and, when the request has to read its own writes, in a session advanced past them.
+     */
+    private <T, R> R read(Class<T> documentClass, Bson filter, Function<FindIterable<T>, R> query) {
+        MongoCollection<T> collection = readCollection().withDocumentClass(documentClass);
+        BsonTimestamp readAfter = CausalReads.current();
+        if (readAfter == null) {
+            return query.apply(withComment(collection.find(filter)));
+        }
+        try (ClientSession session = mongoClient.startSession(CAUSALLY_CONSISTENT)) {
+            session.advanceOperationTime(readAfter);
+            return query.apply(withComment(collection.find(session, filter)));
+        }
+    }
+
+    private static <T> FindIterable<T> withComment(FindIterable<T> query) {
+        String comment = RequestIds.current();
+        return comment != null ? query.comment(comment) : query;
+    }
+
+    private static Document order(Sort sort) {
+        Document order = new Document();
+        for (Sort.Column column : sort.getColumns()) {
+            order.append(
+                    column.getName(), column.getDirection() == Sort.Direction.Descending ? -1 : 1);
+        }
+        return order;
     }
 
-    // PanacheMongoRepositoryBase provides common methods like:
-    // findByIdOptional(ID id)
-    // listAll(Sort sort)
-    // persist(Entity entity)
-    // count()
-    // etc.
+    // PanacheMongoRepositoryBase provides the remaining common methods.
 }
@@ -0,0 +1,297 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.model;
+
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+import java.math.BigDecimal;
+import java.net.IDN;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Hand-written equivalent of the Bean Validation constraints declared on {@link Member}, for the
+ * registration hot path.
+ *
+ * <p>It reports the same property paths and (default, English) messages as Hibernate Validator,
+ * without the metadata walk and reflection. Typical input is decided by simple character scans;
+ * only unusual emails (quoted local parts, non-ASCII characters, address literals) fall back to
+ * precompiled copies of Hibernate Validator's email patterns. {@code MemberValidatorTest} keeps the
+ * two in step: a constraint added to {@link Member} must be added here too.
+ */
+public final class MemberValidator {
+
+    /** A failed constraint, identified like a {@code ConstraintViolation}. */
+    public record Violation(String property, String message) {}
+
+    static final String NOT_NULL = "must not be null";
+    static final String NAME_SIZE = "size must be between 1 and 25";
+    static final String NAME_PATTERN = "Must not contain numbers";
+    static final String EMAIL = "must be a well-formed email address";
+    static final String PHONE_SIZE = "size must be between 10 and 12";
+    static final String PHONE_DIGITS =
+            "numeric value out of bounds (<12 digits>.<0 digits> expected)";
+
+    private static final int PHONE_MAX_INTEGER_DIGITS = 12;
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_DOMAIN_PART_LENGTH = 255;
+    private static final int MAX_DOMAIN_LABEL_LENGTH = 63;
+
+    // Copied from Hibernate Validator's AbstractEmailValidator and DomainNameUtil.
+    private static final String LOCAL_PART_ATOM = "[a-z0-9!#$%&'*+/=?^_`{|}~\u0080-\uFFFF-]";
+    private static final String LOCAL_PART_INSIDE_QUOTES_ATOM =
+            "(?:[a-z0-9!#$%&'*.(),<>\\[\\]:;  @+/=?^_`{|}~\u0080-\uFFFF-]|\\\\\\\\|\\\\\\\")";
+    private static final Pattern LOCAL_PART_PATTERN =
+            Pattern.compile(
+                    "(?:"
+                            + LOCAL_PART_ATOM
+                            + "+|\""
+                            + LOCAL_PART_INSIDE_QUOTES_ATOM
+                            + "+\")"
+                            + "(?:\\."
+                            + "(?:"
+                            + LOCAL_PART_ATOM
+                            + "+|\""
+                            + LOCAL_PART_INSIDE_QUOTES_ATOM
+                            + "+\")"
+                            + ")*",
+                    CASE_INSENSITIVE);
+    private static final String DOMAIN_CHARS_WITHOUT_DASH =
+            "[a-z\u0080-\uFFFF0-9!#$%&'*+/=?^_`{|}~]";
+    private static final String DOMAIN_LABEL =
+            "(?:" + DOMAIN_CHARS_WITHOUT_DASH + "-*)*" + DOMAIN_CHARS_WITHOUT_DASH + "+";
+    private static final String DOMAIN = DOMAIN_LABEL + "+(?:\\." + DOMAIN_LABEL + "+)*";
+    private static final String IP_DOMAIN = "[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}";
+    private static final String IP_V6_DOMAIN =
+            "(?:(?:[0-9a-fA-F]{1,4}:){7,7}[0-9a-fA-F]{1,4}|(?:[0-9a-fA-F]{1,4}:){1,7}:|(?:[0-9a-fA-F]{1,4}:){1,6}:[0-9a-fA-F]{1,4}|(?:[0-9a-fA-F]{1,4}:){1,5}(?::[0-9a-fA-F]{1,4}){1,2}|(?:[0-9a-fA-F]{1,4}:){1,4}(?::[0-9a-fA-F]{1,4}){1,3}|(?:[0-9a-fA-F]{1,4}:){1,3}(?::[0-9a-fA-F]{1,4}){1,4}|(?:[0-9a-fA-F]{1,4}:){1,2}(?::[0-9a-fA-F]{1,4}){1,5}|[0-9a-fA-F]{1,4}:(?:(?::[0-9a-fA-F]{1,4}){1,6})|:(?:(?::[0-9a-fA-F]{1,4}){1,7}|:)|fe80:(?::[0-9a-fA-F]{0,4}){0,4}%[0-9a-zA-Z]{1,}|::(?:ffff(:0{1,4}){0,1}:){0,1}(?:(?:25[0-5]|(?:2[0-4]|1{0,1}[0-9]){0,1}[0-9])\\.){3,3}(?:25[0-5]|(?:2[0-4]|1{0,1}[0-9]){0,1}[0-9])|(?:[0-9a-fA-F]{1,4}:){1,4}:(?:(?:25[0-5]|(?:2[0-4]|1{0,1}[0-9]){0,1}[0-9])\\.){3,3}(?:25[0-5]|(?:2[0-4]|1{0,1}[0-9]){0,1}[0-9]))";
+    private static final Pattern EMAIL_DOMAIN_PATTERN =
+            Pattern.compile(
+                    DOMAIN + "|\\[" + IP_DOMAIN + "\\]|" + "\\[IPv6:" + IP_V6_DOMAIN + "\\]",
+                    CASE_INSENSITIVE);
+
+    private MemberValidator() {}
+
+    /** Returns the violations of {@code member}; an empty (shared) list if it is valid. */
+    public static List<Violation> validate(Member member) {
+        List<Violation> violations = null;
+        if (member.name == null) {
+            violations = add(violations, "name", NOT_NULL);
+        } else {
+            int length = member.name.length();
+            if (length < 1 || length > 25) {
+                violations = add(violations, "name", NAME_SIZE);
+            }
+            if (containsAsciiDigit(member.name)) {
+                violations = add(violations, "name", NAME_PATTERN);
+            }
+        }
+        if (member.email == null) {
+            violations = add(violations, "email", NOT_NULL);
+        } else if (!isValidEmail(member.email)) {
+            violations = add(violations, "email", EMAIL);
+        }
+        if (member.phoneNumber == null) {
+            violations = add(violations, "phoneNumber", NOT_NULL);
+        } else {
+            int length = member.phoneNumber.length();
+            if (length < 10 || length > 12) {
+                violations = add(violations, "phoneNumber", PHONE_SIZE);
+            }
+            if (!hasValidDigits(member.phoneNumber)) {
+                violations = add(violations, "phoneNumber", PHONE_DIGITS);
+            }
+        }
+        return violations == null ? List.of() : violations;
+    }
+
+    public static boolean isValid(Member member) {
+        return validate(member).isEmpty();
+    }
+
+    private static List<Violation> add(
+            List<Violation> violations, String property, String message) {
+        List<Violation> list = violations == null ? new ArrayList<>(2) : violations;
+        list.add(new Violation(property, message));
+        return list;
+    }
+
+    /** {@code @Pattern(regexp = "[^0-9]*")}: the value may not contain any ASCII digit. */
+    static boolean containsAsciiDigit(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@code @Digits(integer = 12, fraction = 0)}: Hibernate Validator parses the value as a {@link
+     * BigDecimal}. Plain digit strings are decided without parsing, by counting the digits after
+     * any leading zeros (the BigDecimal's precision).
+     */
+    static boolean hasValidDigits(String value) {
+        int length = value.length();
+        int firstSignificant = -1;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return hasValidDigitsSlow(value);
+            }
+            if (firstSignificant < 0 && c != '0') {
+                firstSignificant = i;
+            }
+        }
+        if (length == 0) {
+            return false; // not a number
+        }
+        int precision = firstSignificant < 0 ? 1 : length - firstSignificant;
+        return precision <= PHONE_MAX_INTEGER_DIGITS;
+    }
+
+    private static boolean hasValidDigitsSlow(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isDigit(c) && "+-.eE".indexOf(c) < 0) {
+                return false; // BigDecimal would reject it; spare the exception
+            }
+        }
+        BigDecimal number;
+        try {
+            number = new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        int integerPartLength = number.precision() - number.scale();
+        int fractionPartLength = number.scale() < 0 ? 0 : number.scale();
+        return integerPartLength <= PHONE_MAX_INTEGER_DIGITS && fractionPartLength <= 0;
+    }
+
+    /** {@code @Email} with Hibernate Validator's default rules. */
+    static boolean isValidEmail(String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        int at = value.lastIndexOf('@');
+        if (at < 0) {
+            return false;
+        }
+        String localPart = value.substring(0, at);
+        String domainPart = value.substring(at + 1);
+        if (localPart.length() > MAX_LOCAL_PART_LENGTH) {
+            return false;
+        }
+        int local = scanLocalPart(localPart);
+        if (local == UNDECIDED) {
+            if (!LOCAL_PART_PATTERN.matcher(localPart).matches()) {
+                return false;
+            }
+        } else if (local == INVALID) {
+            return false;
+        }
+        int domain = scanDomain(domainPart);
+        return domain == UNDECIDED ? isValidDomainSlow(domainPart) : domain == VALID;
+    }
+
+    private static final int VALID = 0;
+    private static final int INVALID = 1;
+    private static final int UNDECIDED = 2;
+
+    /** Dot-separated, non-empty atoms of plain ASCII characters; anything else is left to regex. */
+    private static int scanLocalPart(String localPart) {
+        boolean atomStart = true;
+        for (int i = 0; i < localPart.length(); i++) {
+            char c = localPart.charAt(i);
+            if (c == '"' || c >= 0x80) {
+                return UNDECIDED;
+            }
+            if (c == '.') {
+                if (atomStart) {
+                    return INVALID;
+                }
+                atomStart = true;
+            } else if (isLocalAtomChar(c)) {
+                atomStart = false;
+            } else {
+                return INVALID;
+            }
+        }
+        return atomStart ? INVALID : VALID;
+    }
+
+    /**
+     * Dot-separated labels of plain ASCII characters that neither start nor end with a dash and,
+     * like {@link IDN#toASCII(String)} requires, are at most 63 characters long.
+     */
+    private static int scanDomain(String domain) {
+        if (domain.length() > MAX_DOMAIN_PART_LENGTH) {
+            for (int i = 0; i < domain.length(); i++) {
+                if (domain.charAt(i) >= 0x80) {
+                    return UNDECIDED;
+                }
+            }
+            return INVALID;
+        }
+        int labelStart = 0;
+        for (int i = 0; i <= domain.length(); i++) {
+            char c = i < domain.length() ? domain.charAt(i) : '.';
+            if (c == '[' || c >= 0x80) {
+                return UNDECIDED;
+            }
+            if (c == '.') {
+                int labelLength = i - labelStart;
+                if (labelLength == 0
+                        || labelLength > MAX_DOMAIN_LABEL_LENGTH
+                        || domain.charAt(labelStart) == '-'
+                        || domain.charAt(i - 1) == '-') {
+                    return INVALID;
+                }
+                labelStart = i + 1;
+            } else if (c != '-' && !isDomainChar(c)) {
+                return INVALID;
+            }
+        }
+        return VALID;
+    }
+
+    private static boolean isValidDomainSlow(String domain) {
+        if (domain.endsWith(".")) {
+            return false;
+        }
+        String ascii;
+        try {
+            ascii = IDN.toASCII(domain);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ascii.length() <= MAX_DOMAIN_PART_LENGTH
+                && EMAIL_DOMAIN_PATTERN.matcher(domain).matches();
+    }
+
+    private static boolean isLocalAtomChar(char c) {
+        return isDomainChar(c) || c == '-';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || "!#$%&'*+/=?^_`{|}~".indexOf(c) >= 0;
+    }
+}
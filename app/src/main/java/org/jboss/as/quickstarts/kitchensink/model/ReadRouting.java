@@ -0,0 +1,108 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.model;
+
+import com.mongodb.ReadPreference;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+
+/**
+ * Read preference of each logical MongoDB operation (see {@link MongoOperation}).
+ *
+ * <p>{@code kitchensink.read-routing.operations} is a comma separated list of {@code
+ * operation=readPreference}, e.g. {@code listAll=secondaryPreferred}; operations not listed read
+ * from the primary. Secondary reads are bounded by {@code kitchensink.read-routing.max-staleness}:
+ * a secondary lagging further behind is not selected. Code that has to read elsewhere for a while
+ * (a hedged read, say) can override the table with {@link #prefer(ReadPreference)}.
+ */
+@ApplicationScoped
+public class ReadRouting {
+
+    private static final ThreadLocal<ReadPreference> OVERRIDE = new ThreadLocal<>();
+
+    @ConfigProperty(name = "kitchensink.read-routing.operations", defaultValue = "")
+    List<String> operations;
+
+    @ConfigProperty(name = "kitchensink.read-routing.max-staleness", defaultValue = "90s")
+    Duration maxStaleness;
+
+    private Map<String, ReadPreference> preferences = Map.of();
+
+    @PostConstruct
+    void init() {
+        Map<String, ReadPreference> parsed = new HashMap<>();
+        for (String rule : operations) {
+            String[] parts = rule.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid read routing rule '" + rule + "'");
+            }
+            parsed.put(parts[0].trim(), readPreference(parts[1].trim()));
+        }
+        preferences = Map.copyOf(parsed);
+    }
+
+    /** Where the current operation reads from. */
+    public ReadPreference current() {
+        ReadPreference override = OVERRIDE.get();
+        if (override != null) {
+            return override;
+        }
+        return preferences.getOrDefault(MongoOperation.current(), ReadPreference.primary());
+    }
+
+    /** Parses a read preference name, applying the staleness bound to non-primary modes. */
+    public ReadPreference readPreference(String name) {
+        ReadPreference mode = ReadPreference.valueOf(name);
+        if (mode.equals(ReadPreference.primary())) {
+            return mode;
+        }
+        return ReadPreference.valueOf(
+                name, List.of(), maxStaleness.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** Makes reads on this thread use {@code preference} until the returned scope is closed. */
+    public static Scope prefer(ReadPreference preference) {
+        Scope scope = new Scope(OVERRIDE.get());
+        OVERRIDE.set(preference);
+        return scope;
+    }
+
+    /** Restores the enclosing override when closed. */
+    public static final class Scope implements AutoCloseable {
+        private final ReadPreference previous;
+
+        private Scope(ReadPreference previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                OVERRIDE.set(previous);
+            } else {
+                OVERRIDE.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.util.RateLimiter;
+import org.jboss.logging.Logger;
+
+/**
+ * The per-route, per-client rate limits applied by {@link RateLimitFilter}.
+ *
+ * <p>{@code kitchensink.rate-limit.routes} is a comma separated list of {@code METHOD
+ * /path=rate/burst}, e.g. {@code GET /app/api/members=50/100} for 50 requests per second with
+ * bursts of up to 100. Paths are relative to the REST root and match themselves and everything
+ * below them; a request uses the longest matching route and requests without a match are not
+ * limited. Every route keeps one bucket per client, and buckets that are full again are swept every
+ * {@code kitchensink.rate-limit.sweep-interval}.
+ *
+ * <p>Only the API keys listed in {@code kitchensink.rate-limit.api-keys} get buckets of their own;
+ * a client cannot escape its IP address's limit by making a key up.
+ */
+@ApplicationScoped
+public class ClientRateLimits {
+
+    private static final Logger LOG = Logger.getLogger(ClientRateLimits.class);
+
+    /** A rate-limited route and the requests it throttled. */
+    public record Route(String method, String path, RateLimiter limiter, LongAdder throttled) {
+
+        boolean matches(String requestMethod, String requestPath) {
+            return method.equals(requestMethod)
+                    && requestPath.startsWith(path)
+                    && (requestPath.length() == path.length()
+                            || requestPath.charAt(path.length()) == '/'
+                            || path.endsWith("/"));
+        }
+    }
+
+    @Inject MeterRegistry registry;
+
+    @ConfigProperty(name = "kitchensink.rate-limit.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "kitchensink.rate-limit.routes", defaultValue = "")
+    String routesConfig;
+
+    @ConfigProperty(name = "kitchensink.rate-limit.api-keys")
+    Optional<List<String>> apiKeysConfig;
+
+    private List<Route> routes = List.of();
+    private Set<String> apiKeys = Set.of();
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        routes = parse(routesConfig);
+        apiKeys = Set.copyOf(apiKeysConfig.orElse(List.of()));
+        for (Route route : routes) {
+            FunctionCounter.builder("http.rate.limited", route.throttled(), LongAdder::sum)
+                    .tag("route", route.method() + " " + route.path())
+                    .description("Requests rejected with 429 by the per-client rate limit")
+                    .register(registry);
+        }
+        Gauge.builder("http.rate.limit.clients", this, ClientRateLimits::trackedClients)
+                .description("Client buckets currently held by the rate limiter")
+                .register(registry);
+    }
+
+    static List<Route> parse(String config) {
+        List<Route> parsed = new ArrayList<>();
+        for (String rule : config.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            String[] parts = rule.trim().split("\\s+|=|/(?=\\d+$)");
+            if (parts.length != 4 || !parts[1].startsWith("/")) {
+                throw new IllegalArgumentException("Invalid rate limit route '" + rule + "'");
+            }
+            parsed.add(
+                    new Route(
+                            parts[0].toUpperCase(Locale.ROOT),
+                            parts[1],
+                            new RateLimiter(
+                                    Double.parseDouble(parts[2]), Integer.parseInt(parts[3])),
+                            new LongAdder()));
+        }
+        // Longest path first, so the most specific route wins.
+        parsed.sort(Comparator.comparingInt((Route r) -> r.path().length()).reversed());
+        return parsed;
+    }
+
+    /** The route limiting this request, or {@code null} if it is not limited. */
+    public Route routeFor(String method, String path) {
+        for (Route route : routes) {
+            if (route.matches(method, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /** Whether requests sending this API key are limited by the key rather than their address. */
+    public boolean isKnownApiKey(String apiKey) {
+        return apiKey != null && apiKeys.contains(apiKey);
+    }
+
+    int trackedClients() {
+        int clients = 0;
+        for (Route route : routes) {
+            clients += route.limiter().size();
+        }
+        return clients;
+    }
+
+    @Scheduled(
+            every = "${kitchensink.rate-limit.sweep-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evictIdleClients() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Route route : routes) {
+            evicted += route.limiter().evictIdle(now);
+        }
+        if (evicted > 0) {
+            LOG.debugf("Evicted %d idle rate limit buckets", evicted);
+        }
+    }
+}
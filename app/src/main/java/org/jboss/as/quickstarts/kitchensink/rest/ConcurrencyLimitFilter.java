@@ -0,0 +1,129 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.util.AdaptiveConcurrencyLimit;
+import org.jboss.logging.Logger;
+
+/**
+ * Adaptive concurrency limit for the {@link ConcurrencyLimited} write endpoints.
+ *
+ * <p>When MongoDB slows down, registrations would otherwise pile up and hold on to worker threads
+ * that reads need too. Requests over the current limit are answered at once with 503 and a {@code
+ * Retry-After} header. The limit follows the observed latency (see {@link
+ * AdaptiveConcurrencyLimit}) and is exported as {@code http.concurrency.limit}, next to {@code
+ * http.concurrency.in.flight} and the {@code http.concurrency.rejected} counter.
+ */
+@Provider
+@ConcurrencyLimited
+public class ConcurrencyLimitFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final Logger LOG = Logger.getLogger(ConcurrencyLimitFilter.class);
+    private static final String PERMIT_PROPERTY =
+            ConcurrencyLimitFilter.class.getName() + ".permit";
+    private static final String LIMITER_TAG = "registration";
+
+    @Inject MeterRegistry registry;
+
+    @ConfigProperty(name = "kitchensink.concurrency-limit.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "kitchensink.concurrency-limit.initial", defaultValue = "20")
+    int initialLimit;
+
+    @ConfigProperty(name = "kitchensink.concurrency-limit.min", defaultValue = "4")
+    int minLimit;
+
+    @ConfigProperty(name = "kitchensink.concurrency-limit.max", defaultValue = "200")
+    int maxLimit;
+
+    @ConfigProperty(name = "kitchensink.concurrency-limit.retry-after-seconds", defaultValue = "1")
+    int retryAfterSeconds;
+
+    private AdaptiveConcurrencyLimit limit;
+
+    @PostConstruct
+    void init() {
+        limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit);
+        Gauge.builder("http.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .tag("limiter", LIMITER_TAG)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder("http.concurrency.in.flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .tag("limiter", LIMITER_TAG)
+                .description("Requests currently holding a concurrency permit")
+                .register(registry);
+        FunctionCounter.builder(
+                        "http.concurrency.rejected", limit, AdaptiveConcurrencyLimit::rejected)
+                .tag("limiter", LIMITER_TAG)
+                .description("Requests rejected with 503 because the concurrency limit was reached")
+                .register(registry);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!enabled) {
+            return;
+        }
+        AdaptiveConcurrencyLimit.Permit permit = limit.tryAcquire();
+        if (permit == null) {
+            LOG.debugf(
+                    "Concurrency limit of %d reached, rejecting %s",
+                    limit.limit(), requestContext.getUriInfo().getPath());
+            requestContext.abortWith(
+                    Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                            .type(MediaType.TEXT_PLAIN)
+                            .entity("Server is busy, please retry shortly.")
+                            .build());
+            return;
+        }
+        requestContext.setProperty(PERMIT_PROPERTY, permit);
+    }
+
+    @Override
+    public void filter(
+            ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (!(requestContext.getProperty(PERMIT_PROPERTY)
+                instanceof AdaptiveConcurrencyLimit.Permit permit)) {
+            return;
+        }
+        requestContext.removeProperty(PERMIT_PROPERTY);
+        int status = responseContext.getStatus();
+        if (status >= 500) {
+            permit.dropped();
+        } else if (status >= 400) {
+            permit.ignore();
+        } else {
+            permit.success();
+        }
+    }
+}
@@ -22,20 +22,20 @@ import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
 import jakarta.ws.rs.ext.Provider;
 import java.io.IOException;
-import java.util.UUID;
+import org.jboss.as.quickstarts.kitchensink.util.RequestIds;
 import org.slf4j.MDC;
 
 @Provider
 public class CorrelationIdFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
     private static final String CORRELATION_ID_HEADER_KEY = "X-Request-ID";
-    private static final String CORRELATION_ID_MDC_KEY = "correlationId";
+    private static final String CORRELATION_ID_MDC_KEY = RequestIds.MDC_KEY;
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
         String correlationId = requestContext.getHeaderString(CORRELATION_ID_HEADER_KEY);
-        if (correlationId == null || correlationId.trim().isEmpty()) {
-            correlationId = UUID.randomUUID().toString();
+        if (!RequestIds.isValid(correlationId)) {
+            correlationId = RequestIds.newId();
         }
         MDC.put(CORRELATION_ID_MDC_KEY, correlationId);
     }
@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+
+/**
+ * A page of the members registered after a sync token, as returned by {@code GET
+ * /api/members/changes}. Clients pass {@code next} as {@code since} to get the following page, or
+ * later to get what was registered meanwhile; {@code more} tells whether another page is ready now.
+ *
+ * <p>A token is the last member id the client has seen, encoded so that clients treat it as opaque
+ * and the format can change.
+ */
+public record MemberChanges(List<Member> members, String next, boolean more) {
+
+    private static final byte VERSION = 1;
+
+    /** The position before the first member. */
+    public static final long START = -1L;
+
+    public static String token(long lastId) {
+        ByteBuffer bytes = ByteBuffer.allocate(1 + Long.BYTES).put(VERSION).putLong(lastId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.array());
+    }
+
+    /**
+     * The last member id a token stands for.
+     *
+     * @throws IllegalArgumentException if it is not a token issued by {@link #token(long)}
+     */
+    public static long lastId(String token) {
+        byte[] bytes = Base64.getUrlDecoder().decode(token);
+        if (bytes.length != 1 + Long.BYTES || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Not a member sync token: " + token);
+        }
+        return ByteBuffer.wrap(bytes, 1, Long.BYTES).getLong();
+    }
+}
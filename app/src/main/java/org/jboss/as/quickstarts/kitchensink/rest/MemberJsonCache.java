@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+
+/**
+ * The JSON of each member, serialized once with the application's {@link ObjectMapper} and kept as
+ * bytes, so that listing members does not run Jackson over every one of them on every call.
+ *
+ * <p>Members are immutable once persisted, so an entry never goes stale. The cache holds at most
+ * {@code kitchensink.member-json-cache.max-entries} members; once full, further members are
+ * serialized on every call instead of evicting others. Members without an id are never cached.
+ */
+@ApplicationScoped
+public class MemberJsonCache {
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject MeterRegistry registry;
+
+    @ConfigProperty(name = "kitchensink.member-json-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "kitchensink.member-json-cache.max-entries", defaultValue = "100000")
+    int maxEntries;
+
+    private final Map<Long, byte[]> json = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("members.json.cache.size", json, Map::size)
+                .description("Members held as pre-serialized JSON")
+                .register(registry);
+    }
+
+    /** The member's JSON; callers must not modify the returned array. */
+    public byte[] get(Member member) throws JsonProcessingException {
+        Long id = member.getId();
+        if (!enabled || id == null) {
+            return objectMapper.writeValueAsBytes(member);
+        }
+        byte[] cached = json.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(member);
+        if (json.size() < maxEntries) {
+            json.putIfAbsent(id, bytes);
+        }
+        return bytes;
+    }
+
+    public int size() {
+        return json.size();
+    }
+}
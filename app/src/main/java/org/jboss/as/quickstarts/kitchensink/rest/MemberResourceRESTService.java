@@ -30,23 +30,42 @@ import jakarta.validation.Validator;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.FormParam;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.bson.RawBsonDocument;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.jboss.as.quickstarts.kitchensink.metrics.RegistrationMetrics;
+import org.jboss.as.quickstarts.kitchensink.metrics.RegistrationMetrics.Outcome;
+import org.jboss.as.quickstarts.kitchensink.metrics.RegistrationMetrics.Phase;
+import org.jboss.as.quickstarts.kitchensink.model.CausalReads;
 import org.jboss.as.quickstarts.kitchensink.model.Member;
 import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.model.MemberValidator;
+import org.jboss.as.quickstarts.kitchensink.service.MemberCache;
+import org.jboss.as.quickstarts.kitchensink.service.MemberCounter;
+import org.jboss.as.quickstarts.kitchensink.service.MemberIdGenerator;
+import org.jboss.as.quickstarts.kitchensink.service.MemberLookupService;
 import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration;
 import org.jboss.logging.Logger;
 
@@ -60,6 +79,7 @@ import org.jboss.logging.Logger;
 public class MemberResourceRESTService {
 
     private static final Logger LOG = Logger.getLogger(MemberResourceRESTService.class);
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
 
     @Inject Validator validator;
 
@@ -67,44 +87,191 @@ public class MemberResourceRESTService {
 
     @Inject MemberRepository memberRepository;
 
+    @Inject MemberLookupService memberLookup;
+
+    @Inject MemberCounter memberCounter;
+
+    @Inject MemberCache memberCache;
+
+    @Inject MemberStream memberStream;
+
+    @Inject MemberIdGenerator memberIds;
+
+    @Inject RegistrationMetrics registrationMetrics;
+
+    /**
+     * Check members with {@link MemberValidator} first and only run Hibernate Validator for invalid
+     * ones, to build the usual violation response.
+     */
+    @ConfigProperty(name = "kitchensink.validation.fast-path", defaultValue = "true")
+    boolean fastPathValidation;
+
+    /**
+     * Serve JSON member reads by transcoding the stored BSON straight to the response, without
+     * creating {@link Member} objects. Cached members, and the list when the member cache serves
+     * it, still come from the cache.
+     */
+    @ConfigProperty(name = "kitchensink.rest.raw-bson-reads", defaultValue = "false")
+    boolean rawBsonReads;
+
+    @ConfigProperty(name = "kitchensink.changes.max-page-size", defaultValue = "1000")
+    int maxChangesPageSize;
+
     @Inject
     @Location("Member/index.html")
     Template index;
 
     @GET
     @Path("/api/members")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({
+        MediaType.APPLICATION_JSON,
+        BinaryMediaTypes.APPLICATION_CBOR,
+        BinaryMediaTypes.APPLICATION_SMILE,
+        BinaryMediaTypes.APPLICATION_MSGPACK
+    })
     public Response getAllMembersApi() {
-        LOG.info("API: Listing all members (ordered by name)");
-        List<Member> members = memberRepository.listAll(Sort.by("name"));
-        if (members.isEmpty()) {
-            LOG.info("API: No members found.");
-            return Response.status(Response.Status.NO_CONTENT).entity("[]").build();
+        LOG.debug("API: Listing all members (ordered by name)");
+        Optional<List<Member>> cached = cachedMembersByName();
+        Object entity;
+        if (rawBsonReads && cached.isEmpty()) {
+            List<RawBsonDocument> documents = listRawMembersByName();
+            entity =
+                    documents.isEmpty()
+                            ? null
+                            : RawMemberJson.list(documents, memberRepository.memberCodec());
+        } else {
+            List<Member> members = cached.isPresent() ? cached.get() : queryMembersByName();
+            entity = members.isEmpty() ? null : new MemberList(members);
+        }
+        long total = memberCounter.get();
+        if (entity == null) {
+            LOG.debug("API: No members found.");
+            return Response.status(Response.Status.NO_CONTENT)
+                    .header(TOTAL_COUNT_HEADER, total)
+                    .entity("[]")
+                    .build();
         }
-        return Response.ok(members).build();
+        return Response.ok(entity).header(TOTAL_COUNT_HEADER, total).build();
+    }
+
+    @GET
+    @Path("/api/members/count")
+    @Produces({
+        MediaType.APPLICATION_JSON,
+        BinaryMediaTypes.APPLICATION_CBOR,
+        BinaryMediaTypes.APPLICATION_SMILE,
+        BinaryMediaTypes.APPLICATION_MSGPACK
+    })
+    public Response countMembersApi() {
+        return Response.ok(Map.of("count", memberCounter.get())).build();
+    }
+
+    /**
+     * Members registered after the {@code since} token, oldest first, in pages of at most {@code
+     * limit}. Without a token it starts from the first member. Member ids only ever increase, so
+     * this is a range query on {@code _id}: a client that is caught up costs one indexed query
+     * returning nothing. Members registered moments ago may only show up in a later page, once no
+     * lower id is still being written (see {@link MemberIdGenerator#settledBelow()}).
+     */
+    @GET
+    @Path("/api/members/changes")
+    @Produces({
+        MediaType.APPLICATION_JSON,
+        BinaryMediaTypes.APPLICATION_CBOR,
+        BinaryMediaTypes.APPLICATION_SMILE,
+        BinaryMediaTypes.APPLICATION_MSGPACK
+    })
+    public Response memberChangesApi(
+            @QueryParam("since") String since, @QueryParam("limit") Integer limit) {
+        long lastId;
+        try {
+            lastId =
+                    since == null || since.isEmpty()
+                            ? MemberChanges.START
+                            : MemberChanges.lastId(since);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("since", "Invalid sync token"))
+                    .build();
+        }
+        int pageSize =
+                limit == null
+                        ? maxChangesPageSize
+                        : Math.max(1, Math.min(limit, maxChangesPageSize));
+        LOG.debugf("API: Listing up to %d members after id %d", pageSize, lastId);
+        // One extra member tells whether there is another page. Members above an id that may
+        // still be being written are held back, so the token never moves past it.
+        List<Member> members = memberIds.settled(memberRepository.listAfter(lastId, pageSize + 1));
+        boolean more = members.size() > pageSize;
+        if (more) {
+            members = members.subList(0, pageSize);
+        }
+        long next = members.isEmpty() ? lastId : members.get(members.size() - 1).getId();
+        return Response.ok(new MemberChanges(members, MemberChanges.token(next), more)).build();
+    }
+
+    /**
+     * Server-Sent Events stream of newly registered members; see {@link MemberStream}. Reconnecting
+     * clients resume after the member id in {@code Last-Event-ID}.
+     */
+    @GET
+    @Path("/api/members/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamMembersApi(
+            @Context SseEventSink sink,
+            @Context Sse sse,
+            @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) Long lastEventId) {
+        LOG.debugf("API: Streaming new members after id %s", lastEventId);
+        memberStream.subscribe(sink, sse, lastEventId);
     }
 
     @GET
     @Path("/api/members/{id}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({
+        MediaType.APPLICATION_JSON,
+        BinaryMediaTypes.APPLICATION_CBOR,
+        BinaryMediaTypes.APPLICATION_SMILE,
+        BinaryMediaTypes.APPLICATION_MSGPACK
+    })
     public Response lookupMemberByIdApi(@PathParam("id") Long id) {
-        LOG.info("API: Looking up member by id: " + id);
+        LOG.debugf("API: Looking up member by id: %d", id);
+        if (rawBsonReads && memberLookup.findCachedById(id).isEmpty()) {
+            RawBsonDocument document =
+                    memberLookup
+                            .findRawById(id)
+                            .orElseThrow(
+                                    () ->
+                                            new WebApplicationException(
+                                                    "Member with id of " + id + " does not exist.",
+                                                    Response.Status.NOT_FOUND));
+            return Response.ok(RawMemberJson.of(document, memberRepository.memberCodec())).build();
+        }
         Member member =
-                memberRepository
-                        .findByIdOptional(id)
+                findMemberById(id)
                         .orElseThrow(
                                 () ->
                                         new WebApplicationException(
                                                 "Member with id of " + id + " does not exist.",
                                                 Response.Status.NOT_FOUND));
-        LOG.info("API: Found member: " + member.email);
+        LOG.debugf("API: Found member: %s", member.email);
         return Response.ok(member).build();
     }
 
     @POST
     @Path("/api/members")
-    @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @ConcurrencyLimited
+    @Consumes({
+        MediaType.APPLICATION_JSON,
+        BinaryMediaTypes.APPLICATION_CBOR,
+        BinaryMediaTypes.APPLICATION_SMILE,
+        BinaryMediaTypes.APPLICATION_MSGPACK
+    })
+    @Produces({
+        MediaType.APPLICATION_JSON,
+        BinaryMediaTypes.APPLICATION_CBOR,
+        BinaryMediaTypes.APPLICATION_SMILE,
+        BinaryMediaTypes.APPLICATION_MSGPACK
+    })
     @Timed(
             value = "members.api.creation.time",
             description = "Time taken to create a member via API")
@@ -112,9 +279,9 @@ public class MemberResourceRESTService {
             value = "members.api.creation.count",
             description = "Number of member API creation attempts")
     public Response createMemberApi(Member member) {
-        LOG.info(
-                "API: Received createMemberApi request for email: "
-                        + (member != null ? member.email : "null member object"));
+        LOG.debugf(
+                "API: Received createMemberApi request for email: %s",
+                member != null ? member.email : "null member object");
         if (member == null) {
             LOG.error("API: Member object is null in createMemberApi");
             return Response.status(Response.Status.BAD_REQUEST)
@@ -122,7 +289,7 @@ public class MemberResourceRESTService {
                     .build();
         }
         if (member.getId() != null) {
-            LOG.warn("API: Member payload for creation contains an ID: " + member.getId());
+            LOG.warnf("API: Member payload for creation contains an ID: %d", member.getId());
             Map<String, String> responseObj = new HashMap<>();
             responseObj.put(
                     "id",
@@ -130,39 +297,36 @@ public class MemberResourceRESTService {
             return Response.status(Response.Status.CONFLICT).entity(responseObj).build();
         }
 
-        LOG.info(
-                "API: Attempting to create member: " + member.email + " with name: " + member.name);
+        RegistrationMetrics.Timing timing = registrationMetrics.begin();
+        Outcome outcome = Outcome.ERROR;
         try {
-            LOG.info("API: Validating member bean for: " + member.email);
+            timing.start(Phase.VALIDATION);
             validateMemberBean(member);
-            LOG.info("API: Calling registration service for: " + member.email);
+            timing.end();
             registrationService.register(member);
-            LOG.info(
-                    "API: Member registered successfully: "
-                            + member.email
-                            + " with ID: "
-                            + member.id);
+            outcome = Outcome.CREATED;
+            LOG.debugf(
+                    "API: Member registered successfully: %s with ID: %d", member.email, member.id);
             return Response.status(Response.Status.CREATED).entity(member).build();
         } catch (ConstraintViolationException ce) {
-            LOG.warn("API: ConstraintViolationException for member: " + member.email, ce);
+            outcome = Outcome.INVALID;
+            LOG.debugf(ce, "API: ConstraintViolationException for member: %s", member.email);
             return createViolationResponse(ce.getConstraintViolations());
         } catch (MemberRegistration.EmailAlreadyExistsException e) {
-            LOG.warn("API: EmailAlreadyExistsException for: " + member.email, e);
+            outcome = Outcome.DUPLICATE;
+            LOG.debugf("API: EmailAlreadyExistsException for: %s", member.email);
             Map<String, String> responseObj = new HashMap<>();
             responseObj.put("email", "Email already exists");
             return Response.status(Response.Status.CONFLICT).entity(responseObj).build();
         } catch (Exception e) {
-            LOG.error(
-                    "API: Generic Exception creating member: "
-                            + member.email
-                            + " - "
-                            + e.getMessage(),
-                    e);
+            LOG.errorf(e, "API: Generic Exception creating member: %s", member.email);
             Map<String, String> responseObj = new HashMap<>();
             responseObj.put("error", "An unexpected error occurred: " + e.getMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(responseObj)
                     .build();
+        } finally {
+            timing.finish(outcome);
         }
     }
 
@@ -170,8 +334,8 @@ public class MemberResourceRESTService {
     @Path("/ui")
     @Produces(MediaType.TEXT_HTML)
     public TemplateInstance getWebUi() {
-        LOG.info("Serving UI page");
-        List<Member> members = memberRepository.listAll(Sort.by("name"));
+        LOG.debug("Serving UI page");
+        List<Member> members = listMembersByName();
         Member newMember = new Member();
         return index.data("members", members)
                 .data("newMember", newMember)
@@ -181,6 +345,7 @@ public class MemberResourceRESTService {
 
     @POST
     @Path("/ui/register")
+    @ConcurrencyLimited
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
     @Produces(MediaType.TEXT_HTML)
     @Timed(
@@ -193,7 +358,7 @@ public class MemberResourceRESTService {
             @FormParam("name") String name,
             @FormParam("email") String email,
             @FormParam("phoneNumber") String phoneNumber) {
-        LOG.info("UI: Registration attempt for email: " + email);
+        LOG.debugf("UI: Registration attempt for email: %s", email);
         Member newMember = new Member();
         newMember.name = name;
         newMember.email = email;
@@ -202,31 +367,40 @@ public class MemberResourceRESTService {
         Map<String, String> errors = new HashMap<>();
         List<Map<String, String>> globalMessages = new ArrayList<>();
 
+        RegistrationMetrics.Timing timing = registrationMetrics.begin();
+        Outcome outcome = Outcome.ERROR;
         try {
+            timing.start(Phase.VALIDATION);
             validateMemberBean(newMember);
+            timing.end();
             registrationService.register(newMember);
+            outcome = Outcome.CREATED;
             globalMessages.add(Map.of("type", "valid", "text", "Registered!"));
             newMember = new Member();
 
         } catch (ConstraintViolationException ce) {
+            outcome = Outcome.INVALID;
             ce.getConstraintViolations()
                     .forEach(v -> errors.put(v.getPropertyPath().toString(), v.getMessage()));
             globalMessages.add(Map.of("type", "invalid", "text", "Validation errors occurred."));
         } catch (MemberRegistration.EmailAlreadyExistsException e) {
+            outcome = Outcome.DUPLICATE;
             errors.put("email", "Email already exists");
             globalMessages.add(
                     Map.of("type", "invalid", "text", "This email is already registered."));
         } catch (Exception e) {
-            LOG.error("Error during UI registration: " + e.getMessage(), e);
+            LOG.errorf(e, "Error during UI registration: %s", e.getMessage());
             globalMessages.add(
                     Map.of(
                             "type",
                             "error",
                             "text",
                             "An unexpected error occurred during registration."));
+        } finally {
+            timing.finish(outcome);
         }
 
-        List<Member> members = memberRepository.listAll(Sort.by("name"));
+        List<Member> members = listMembersByName();
         return index.data("members", members)
                 .data("newMember", newMember)
                 .data("errors", errors)
@@ -237,10 +411,9 @@ public class MemberResourceRESTService {
     @Path("/ui/members/{id}")
     @Produces(MediaType.TEXT_HTML)
     public TemplateInstance getMemberByIdUi(@PathParam("id") Long id) {
-        LOG.info("UI: Looking up member by id: " + id);
+        LOG.debugf("UI: Looking up member by id: %d", id);
         Member member =
-                memberRepository
-                        .findByIdOptional(id)
+                findMemberById(id)
                         .orElseThrow(
                                 () ->
                                         new WebApplicationException(
@@ -253,7 +426,44 @@ public class MemberResourceRESTService {
                 .data("globalMessages", Collections.emptyList());
     }
 
+    private List<Member> listMembersByName() {
+        Optional<List<Member>> cached = cachedMembersByName();
+        return cached.isPresent() ? cached.get() : queryMembersByName();
+    }
+
+    /**
+     * The member list from the member cache, if it provably holds every member: as many as the
+     * maintained count, which is reconciled against MongoDB and so also notices members the cache
+     * has not picked up from other instances yet. A request that must read after a write goes to
+     * MongoDB, as the cache cannot tell whether it holds that write.
+     */
+    private Optional<List<Member>> cachedMembersByName() {
+        if (CausalReads.current() != null) {
+            return Optional.empty();
+        }
+        return memberCache.listByName().filter(members -> members.size() == memberCounter.get());
+    }
+
+    private List<Member> queryMembersByName() {
+        try (MongoOperation.Scope scope = MongoOperation.start("listAll")) {
+            return memberRepository.listAll(Sort.by("name"));
+        }
+    }
+
+    private List<RawBsonDocument> listRawMembersByName() {
+        try (MongoOperation.Scope scope = MongoOperation.start("listAll")) {
+            return memberRepository.listAllRaw(Sort.by("name"));
+        }
+    }
+
+    private Optional<Member> findMemberById(Long id) {
+        return memberLookup.findById(id);
+    }
+
     private void validateMemberBean(Member member) throws ConstraintViolationException {
+        if (fastPathValidation && MemberValidator.isValid(member)) {
+            return;
+        }
         Set<ConstraintViolation<Member>> violations = validator.validate(member);
         if (!violations.isEmpty()) {
             throw new ConstraintViolationException(new HashSet<>(violations));
@@ -261,11 +471,13 @@ public class MemberResourceRESTService {
     }
 
     private Response createViolationResponse(Set<ConstraintViolation<?>> violations) {
-        LOG.warnf(
-                "Validation violations found: %s",
-                violations.stream()
-                        .map(v -> v.getPropertyPath().toString() + ": " + v.getMessage())
-                        .collect(Collectors.joining(", ")));
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf(
+                    "Validation violations found: %s",
+                    violations.stream()
+                            .map(v -> v.getPropertyPath().toString() + ": " + v.getMessage())
+                            .collect(Collectors.joining(", ")));
+        }
 
         Map<String, String> responseObj = new HashMap<>();
         for (ConstraintViolation<?> violation : violations) {
@@ -0,0 +1,282 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.service.MemberIdGenerator;
+import org.jboss.logging.Logger;
+
+/**
+ * Pushes members registered on this instance to Server-Sent Events subscribers, as {@code member}
+ * events whose id is the position to resume from: the member id, unless a lower id may still be
+ * being written (see {@link MemberIdGenerator#settledBelow()}), in which case it is the position
+ * just below that id. A reconnecting subscriber then gets that member again rather than never
+ * getting the one still being written.
+ *
+ * <p>A subscriber sending {@code Last-Event-ID} first gets the members registered after that id
+ * from MongoDB, so it also catches up on registrations handled by other instances. If it missed
+ * more than {@code replay-limit} members it gets a {@code reset} event instead, telling it to
+ * reload the member list.
+ *
+ * <p>Every subscriber has a buffer of {@code buffer-size} events and at most one send in flight. A
+ * subscriber whose buffer overflows is too slow to keep up: it is disconnected and counted in
+ * {@code members.stream.dropped}. EventSource clients then reconnect and catch up through {@code
+ * Last-Event-ID}.
+ */
+@ApplicationScoped
+public class MemberStream {
+
+    private static final Logger LOG = Logger.getLogger(MemberStream.class);
+
+    @Inject MemberRepository memberRepository;
+
+    @Inject MemberIdGenerator memberIds;
+
+    @Inject MeterRegistry registry;
+
+    @ConfigProperty(name = "kitchensink.stream.buffer-size", defaultValue = "256")
+    int bufferSize;
+
+    @ConfigProperty(name = "kitchensink.stream.replay-limit", defaultValue = "1000")
+    int replayLimit;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private volatile Sse sse;
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("members.stream.subscribers", subscribers, Set::size)
+                .description("Connected subscribers of the member event stream")
+                .register(registry);
+        dropped =
+                Counter.builder("members.stream.dropped")
+                        .description("Member stream subscribers disconnected for falling behind")
+                        .register(registry);
+    }
+
+    /**
+     * Starts streaming to {@code sink}, replaying the members registered after {@code lastEventId}
+     * first if it is set.
+     */
+    public void subscribe(SseEventSink sink, Sse sse, Long lastEventId) {
+        this.sse = sse;
+        Subscriber subscriber = new Subscriber(sink);
+        // Registered before reading the missed members, so nothing falls in between.
+        subscribers.add(subscriber);
+        if (lastEventId != null) {
+            try {
+                List<Member> missed = memberRepository.listAfter(lastEventId, replayLimit + 1);
+                if (missed.size() > replayLimit) {
+                    long latest = memberRepository.maxId();
+                    subscriber.replay(
+                            latest,
+                            sse.newEventBuilder()
+                                    .id(String.valueOf(position(latest)))
+                                    .name("reset")
+                                    .data(String.class, "reload")
+                                    .build());
+                } else {
+                    for (Member member : missed) {
+                        subscriber.replay(member.getId(), event(sse, member));
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Failed to replay members after id %d", lastEventId);
+                subscriber.close(false);
+                return;
+            }
+        }
+        subscriber.start();
+    }
+
+    void onMemberRegistered(@Observes Member member) {
+        Sse current = sse;
+        if (subscribers.isEmpty() || current == null) {
+            return;
+        }
+        OutboundSseEvent event = event(current, member);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(member.getId(), event);
+        }
+    }
+
+    /** Keeps idle connections open through proxies and notices clients that went away. */
+    @Scheduled(
+            every = "${kitchensink.stream.keep-alive}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void keepAlive() {
+        Sse current = sse;
+        if (current == null) {
+            return;
+        }
+        OutboundSseEvent comment = current.newEventBuilder().comment("keep-alive").build();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sink.isClosed()) {
+                subscribers.remove(subscriber);
+            } else {
+                subscriber.keepAlive(comment);
+            }
+        }
+    }
+
+    /**
+     * Where a subscriber that has seen every member up to {@code id} resumes: {@code id}, or just
+     * below the lowest id that may still be being written, if that is lower.
+     */
+    private long position(long id) {
+        long settledBelow = memberIds.settledBelow();
+        return settledBelow >= id ? id : settledBelow - 1;
+    }
+
+    private OutboundSseEvent event(Sse sse, Member member) {
+        return sse.newEventBuilder()
+                .id(String.valueOf(position(member.getId())))
+                .name("member")
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(Member.class, member)
+                .build();
+    }
+
+    private record Item(long id, OutboundSseEvent event) {}
+
+    private final class Subscriber {
+
+        final SseEventSink sink;
+        private final Queue<Item> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        // Filled before start() and only read by the sending thread afterwards.
+        private final Queue<Item> replayed = new ArrayDeque<>();
+        private final Set<Long> replayedIds = new HashSet<>();
+
+        private volatile boolean started;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEventSink sink) {
+            this.sink = sink;
+        }
+
+        void replay(long id, OutboundSseEvent event) {
+            replayed.add(new Item(id, event));
+            replayedIds.add(id);
+        }
+
+        void start() {
+            started = true;
+            drain();
+        }
+
+        void offer(long id, OutboundSseEvent event) {
+            if (!buffer.offer(new Item(id, event))) {
+                LOG.debugf("Dropping member stream subscriber with %d events buffered", bufferSize);
+                close(true);
+                return;
+            }
+            drain();
+        }
+
+        void keepAlive(OutboundSseEvent comment) {
+            if (started && !closed.get() && sending.compareAndSet(false, true)) {
+                send(comment);
+            }
+        }
+
+        /** Sends the next buffered event, unless a send is in flight; its completion continues. */
+        private void drain() {
+            while (started && !closed.get() && sending.compareAndSet(false, true)) {
+                Item next = next();
+                if (next != null) {
+                    send(next.event());
+                    return;
+                }
+                sending.set(false);
+                if (buffer.isEmpty()) {
+                    return;
+                }
+                // An event arrived after next() came back empty; its offer saw sending set.
+            }
+        }
+
+        private Item next() {
+            Item item = replayed.poll();
+            if (item != null) {
+                return item;
+            }
+            do {
+                item = buffer.poll();
+            } while (item != null && replayedIds.contains(item.id()));
+            return item;
+        }
+
+        private void send(OutboundSseEvent event) {
+            CompletionStage<?> sent;
+            try {
+                sent = sink.send(event);
+            } catch (RuntimeException e) {
+                // The sink rejects sends once the client has disconnected.
+                sent(e);
+                return;
+            }
+            sent.whenComplete((ignored, failure) -> sent(failure));
+        }
+
+        private void sent(Throwable failure) {
+            if (failure != null) {
+                LOG.debugf("Member stream subscriber went away: %s", failure.toString());
+                close(false);
+                return;
+            }
+            sending.set(false);
+            drain();
+        }
+
+        void close(boolean slow) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            if (slow) {
+                dropped.increment();
+            }
+            sink.close();
+        }
+    }
+}
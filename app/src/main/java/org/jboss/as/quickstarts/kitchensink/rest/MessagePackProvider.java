@@ -0,0 +1,34 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.ext.Provider;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+/** MessagePack bodies for resources that list {@link BinaryMediaTypes#APPLICATION_MSGPACK}. */
+@Provider
+@Produces(BinaryMediaTypes.APPLICATION_MSGPACK)
+@Consumes(BinaryMediaTypes.APPLICATION_MSGPACK)
+public class MessagePackProvider extends JacksonBinaryProvider {
+
+    public MessagePackProvider(ObjectMapper jsonMapper) {
+        super(jsonMapper, new MessagePackFactory());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.util.RateLimiter;
+import org.jboss.as.quickstarts.kitchensink.util.WarmUpTraffic;
+
+/**
+ * Per-client rate limiting for the routes configured in {@link ClientRateLimits}.
+ *
+ * <p>Clients are told apart by the API key header when they send a known key and by their IP
+ * address otherwise (set {@code quarkus.http.proxy.proxy-address-forwarding} behind a proxy). It
+ * runs before resource matching, so a throttled request is answered with 429 before any other work
+ * is done. Limited routes carry the {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code
+ * RateLimit-Reset} headers, and 429 responses a {@code Retry-After}. The warm-up's own requests are
+ * not limited.
+ */
+@Provider
+@PreMatching
+@Priority(Priorities.AUTHENTICATION - 100)
+public class RateLimitFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String DECISION_PROPERTY = RateLimitFilter.class.getName() + ".decision";
+    private static final String LIMIT_HEADER = "RateLimit-Limit";
+    private static final String REMAINING_HEADER = "RateLimit-Remaining";
+    private static final String RESET_HEADER = "RateLimit-Reset";
+
+    @Inject ClientRateLimits rateLimits;
+
+    @Inject HttpServerRequest httpRequest;
+
+    @ConfigProperty(name = "kitchensink.rate-limit.api-key-header", defaultValue = "X-API-Key")
+    String apiKeyHeader;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        ClientRateLimits.Route route =
+                rateLimits.routeFor(
+                        requestContext.getMethod(), requestContext.getUriInfo().getPath());
+        if (route == null || WarmUpTraffic.current()) {
+            return;
+        }
+        RateLimiter.Decision decision =
+                route.limiter().tryAcquire(clientKey(requestContext), System.nanoTime());
+        if (decision.allowed()) {
+            requestContext.setProperty(DECISION_PROPERTY, new Limited(route, decision));
+            return;
+        }
+        route.throttled().increment();
+        Response.ResponseBuilder response =
+                Response.status(Response.Status.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, seconds(decision.retryAfterNanos()))
+                        .type(MediaType.TEXT_PLAIN)
+                        .entity("Too many requests, please slow down.");
+        addHeaders(route, decision, response);
+        requestContext.abortWith(response.build());
+    }
+
+    @Override
+    public void filter(
+            ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (requestContext.getProperty(DECISION_PROPERTY) instanceof Limited limited) {
+            MultivaluedMap<String, Object> headers = responseContext.getHeaders();
+            headers.putSingle(LIMIT_HEADER, limited.route().limiter().burst());
+            headers.putSingle(REMAINING_HEADER, limited.decision().remaining());
+            headers.putSingle(RESET_HEADER, seconds(limited.decision().resetNanos()));
+        }
+    }
+
+    private String clientKey(ContainerRequestContext requestContext) {
+        String apiKey = requestContext.getHeaderString(apiKeyHeader);
+        if (rateLimits.isKnownApiKey(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + httpRequest.remoteAddress().hostAddress();
+    }
+
+    private static void addHeaders(
+            ClientRateLimits.Route route,
+            RateLimiter.Decision decision,
+            Response.ResponseBuilder response) {
+        response.header(LIMIT_HEADER, route.limiter().burst())
+                .header(REMAINING_HEADER, decision.remaining())
+                .header(RESET_HEADER, seconds(decision.resetNanos()));
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private record Limited(ClientRateLimits.Route route, RateLimiter.Decision decision) {}
+}
@@ -0,0 +1,53 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.List;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+
+/**
+ * Member documents read from MongoDB without decoding, as a response entity: a single member or a
+ * list. {@link RawMemberJsonWriter} transcodes them straight to JSON; for any other media type
+ * Jackson serializes the members decoded with {@code codec}.
+ */
+public record RawMemberJson(List<RawBsonDocument> documents, boolean single, Codec<Member> codec) {
+
+    public static RawMemberJson of(RawBsonDocument document, Codec<Member> codec) {
+        return new RawMemberJson(List.of(document), true, codec);
+    }
+
+    public static RawMemberJson list(List<RawBsonDocument> documents, Codec<Member> codec) {
+        return new RawMemberJson(documents, false, codec);
+    }
+
+    @JsonValue
+    Object decoded() {
+        List<Member> members =
+                documents.stream()
+                        .map(
+                                document ->
+                                        codec.decode(
+                                                document.asBsonReader(),
+                                                DecoderContext.builder().build()))
+                        .toList();
+        return single ? members.get(0) : members;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Map;
+import org.bson.RawBsonDocument;
+import org.jboss.as.quickstarts.kitchensink.util.BsonJsonTranscoder;
+
+/**
+ * Writes {@link RawMemberJson} by transcoding the BSON bytes to the JSON output stream, renaming
+ * {@code _id} to {@code id} so the output has the same shape as a serialized {@code Member}. Fields
+ * missing from the stored document, such as an unset phone number, are left out instead of being
+ * written as {@code null}.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class RawMemberJsonWriter implements MessageBodyWriter<RawMemberJson> {
+
+    private static final BsonJsonTranscoder TRANSCODER =
+            new BsonJsonTranscoder(Map.of("_id", "id"));
+
+    @Inject ObjectMapper objectMapper;
+
+    @Override
+    public boolean isWriteable(
+            Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return RawMemberJson.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(
+            RawMemberJson members,
+            Class<?> type,
+            Type genericType,
+            Annotation[] annotations,
+            MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders,
+            OutputStream entityStream)
+            throws IOException {
+        try (JsonGenerator generator =
+                objectMapper.getFactory().createGenerator(entityStream, JsonEncoding.UTF8)) {
+            if (members.single()) {
+                TRANSCODER.write(members.documents().get(0), generator);
+                return;
+            }
+            generator.writeStartArray();
+            for (RawBsonDocument document : members.documents()) {
+                TRANSCODER.write(document, generator);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.ext.Provider;
+import java.time.Duration;
+import java.util.Set;
+import org.bson.BsonTimestamp;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.model.CausalReads;
+import org.slf4j.MDC;
+
+/**
+ * Carries the read-after time of {@link CausalReads} between a client's requests.
+ *
+ * <p>A successful write answers with the time in the {@code X-Read-After} header and a cookie of
+ * the same name, and requests sending either back read after it. Past {@code
+ * kitchensink.read-routing.read-your-writes-window} the time is ignored: by then every secondary
+ * that may still be selected (see {@code kitchensink.read-routing.max-staleness}) has the write.
+ * Times from the future are ignored too, see {@link CausalReads#accepts}.
+ */
+@Provider
+public class ReadYourWritesFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    static final String READ_AFTER_HEADER = "X-Read-After";
+    static final String READ_AFTER_COOKIE = "read-after";
+
+    private static final Set<String> WRITE_METHODS =
+            Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    @Inject CausalReads causalReads;
+
+    @ConfigProperty(name = "kitchensink.read-routing.read-your-writes-window", defaultValue = "90s")
+    Duration window;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        String value = requestContext.getHeaderString(READ_AFTER_HEADER);
+        if (value == null) {
+            Cookie cookie = requestContext.getCookies().get(READ_AFTER_COOKIE);
+            value = cookie != null ? cookie.getValue() : null;
+        }
+        BsonTimestamp readAfter = CausalReads.parse(value);
+        if (readAfter != null
+                && causalReads.accepts(readAfter, window, System.currentTimeMillis())) {
+            MDC.put(CausalReads.MDC_KEY, CausalReads.format(readAfter));
+        }
+    }
+
+    @Override
+    public void filter(
+            ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        String readAfter = MDC.get(CausalReads.MDC_KEY);
+        MDC.remove(CausalReads.MDC_KEY);
+        if (readAfter == null
+                || responseContext.getStatus() >= 400
+                || !WRITE_METHODS.contains(requestContext.getMethod())) {
+            return;
+        }
+        responseContext.getHeaders().putSingle(READ_AFTER_HEADER, readAfter);
+        responseContext
+                .getHeaders()
+                .add(
+                        HttpHeaders.SET_COOKIE,
+                        new NewCookie.Builder(READ_AFTER_COOKIE)
+                                .value(readAfter)
+                                .path("/")
+                                .maxAge((int) window.toSeconds())
+                                .httpOnly(true)
+                                .sameSite(NewCookie.SameSite.LAX)
+                                .build());
+    }
+}
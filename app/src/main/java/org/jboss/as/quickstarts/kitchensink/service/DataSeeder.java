@@ -21,39 +21,113 @@ import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
 import io.quarkus.arc.profile.UnlessBuildProfile;
-import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
 import org.jboss.as.quickstarts.kitchensink.model.Member;
 import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
 import org.jboss.logging.Logger;
 
 @UnlessBuildProfile("test")
 @ApplicationScoped
-public class DataSeeder {
+public class DataSeeder implements StartupTask {
 
     private static final Logger LOG = Logger.getLogger(DataSeeder.class);
-    private static final String MEMBER_ID_SEQUENCE_NAME = "memberId";
+    static final String MEMBER_ID_SEQUENCE_NAME = "memberId";
 
     @Inject MongoClient mongoClient;
 
     @ConfigProperty(name = "quarkus.mongodb.database")
     String databaseName;
 
+    /**
+     * What to seed into an empty members collection: {@code default} (a single sample member),
+     * {@code synthetic} (generated members, see {@link SyntheticMemberGenerator}) or {@code none}.
+     */
+    @ConfigProperty(name = "kitchensink.seed.mode", defaultValue = "default")
+    String seedMode;
+
+    @ConfigProperty(name = "kitchensink.seed.synthetic.count", defaultValue = "10000")
+    long syntheticCount;
+
+    @ConfigProperty(name = "kitchensink.seed.synthetic.batch-size", defaultValue = "1000")
+    int syntheticBatchSize;
+
+    @ConfigProperty(name = "kitchensink.seed.synthetic.parallelism", defaultValue = "4")
+    int syntheticParallelism;
+
     @Inject MemberRepository memberRepository;
 
     @Inject SequenceGeneratorService sequenceGenerator;
 
+    @Inject MemberIdGenerator memberIds;
+
+    @Inject StartupTracker startupTracker;
+
+    @Inject MemberCounter memberCounter;
+
     private MongoDatabase getDatabase() {
         return mongoClient.getDatabase(databaseName);
     }
 
-    void onStart(@Observes StartupEvent ev) {
+    @Override
+    public String name() {
+        return "data-seeder";
+    }
+
+    @Override
+    public int order() {
+        return 100;
+    }
+
+    @Override
+    public void run() {
         LOG.info("DataSeeder: Checking and seeding initial data if necessary.");
 
+        startupTracker.time("seed.indexes", this::createIndexes);
+
+        startupTracker.time(
+                "seed.sequence",
+                () -> {
+                    sequenceGenerator.initializeSequence(MEMBER_ID_SEQUENCE_NAME, -1L);
+                    LOG.info(
+                            "Initialized sequence '"
+                                    + MEMBER_ID_SEQUENCE_NAME
+                                    + "' to -1 if it did not exist (for IDs starting at 0).");
+                    if (memberIds.strategy() == MemberIdGenerator.Strategy.SEQUENCE) {
+                        advanceSequencePastExistingIds();
+                    }
+                });
+
+        startupTracker.time("seed.members", this::seedIfEmpty);
+    }
+
+    /**
+     * Member ids must only ever increase, as sync tokens and stream replays read members after an
+     * id. After running with snowflake ids the counter is far below the highest member id, so it is
+     * moved up to it, like {@link NodeLeaseService} starts snowflake ids above it.
+     */
+    private void advanceSequencePastExistingIds() {
+        long maxId = memberRepository.maxId();
+        if (maxId >= 0) {
+            sequenceGenerator.advanceTo(MEMBER_ID_SEQUENCE_NAME, maxId);
+            LOG.infof(
+                    "Sequence '%s' continues above the highest member id %d",
+                    MEMBER_ID_SEQUENCE_NAME, maxId);
+        }
+    }
+
+    private void createIndexes() {
         try {
             MongoCollection<Member> memberCollection =
                     getDatabase().getCollection("members", Member.class);
@@ -64,30 +138,108 @@ public class DataSeeder {
         } catch (Exception e) {
             LOG.error("Failed to create unique index on email for members collection", e);
         }
+    }
 
-        sequenceGenerator.initializeSequence(MEMBER_ID_SEQUENCE_NAME, -1L);
-        LOG.info(
-                "Initialized sequence '"
-                        + MEMBER_ID_SEQUENCE_NAME
-                        + "' to -1 if it did not exist (for IDs starting at 0).");
-
-        if (memberRepository.count() == 0) {
-            LOG.info("No members found. Seeding initial data.");
-            Member defaultMember = new Member();
-            defaultMember.setId(sequenceGenerator.getNextSequence(MEMBER_ID_SEQUENCE_NAME));
-            defaultMember.name = "John Smith";
-            defaultMember.email = "john.smith@mailinator.com";
-            defaultMember.phoneNumber = "2125551212";
-            memberRepository.persist(defaultMember);
-            LOG.info(
-                    "Default member '"
-                            + defaultMember.name
-                            + "' seeded with ID: "
-                            + defaultMember.getId());
-        } else {
+    private void seedIfEmpty() {
+        long existingMembers;
+        try (MongoOperation.Scope scope = MongoOperation.start("count")) {
+            existingMembers = memberRepository.count();
+        }
+        if (existingMembers > 0) {
             LOG.info(
                     "DataSeeder: Members already exist, no seeding required. Count: "
-                            + memberRepository.count());
+                            + existingMembers);
+            memberCounter.seed(existingMembers);
+            return;
+        }
+        long seeded =
+                switch (seedMode) {
+                    case "synthetic" -> seedSyntheticMembers();
+                    case "none" -> {
+                        LOG.info("No members found. Seeding is disabled.");
+                        yield 0L;
+                    }
+                    default -> seedDefaultMember();
+                };
+        memberCounter.seed(seeded);
+    }
+
+    private long seedDefaultMember() {
+        LOG.info("No members found. Seeding initial data.");
+        Member defaultMember = new Member();
+        defaultMember.setId(memberIds.nextId());
+        defaultMember.name = "John Smith";
+        defaultMember.email = "john.smith@mailinator.com";
+        defaultMember.phoneNumber = "2125551212";
+        memberRepository.persist(defaultMember);
+        LOG.info(
+                "Default member '"
+                        + defaultMember.name
+                        + "' seeded with ID: "
+                        + defaultMember.getId());
+        return 1L;
+    }
+
+    /**
+     * Loads {@code kitchensink.seed.synthetic.count} generated members with parallel, unordered
+     * {@code insertMany} batches. Each batch reserves its block of ids from the member sequence in
+     * one round trip, so seeded members are indistinguishable from registered ones.
+     */
+    private long seedSyntheticMembers() {
+        long total = Math.min(syntheticCount, SyntheticMemberGenerator.MAX_INDEX);
+        int batchSize = Math.max(1, syntheticBatchSize);
+        LOG.infof(
+                "No members found. Seeding %d synthetic members in batches of %d with %d writers.",
+                total, batchSize, syntheticParallelism);
+
+        MongoCollection<Member> collection = memberRepository.mongoCollection();
+        InsertManyOptions options = new InsertManyOptions().ordered(false);
+        ExecutorService writers = Executors.newFixedThreadPool(Math.max(1, syntheticParallelism));
+        AtomicLong inserted = new AtomicLong();
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> batches = new ArrayList<>();
+            for (long first = 0; first < total; first += batchSize) {
+                long firstIndex = first;
+                int size = (int) Math.min(batchSize, total - first);
+                batches.add(
+                        writers.submit(
+                                () -> {
+                                    // Blocks of sequence numbers under either id strategy: one
+                                    // round trip per batch, and below every snowflake id.
+                                    long firstId =
+                                            sequenceGenerator.reserveBlock(
+                                                    MEMBER_ID_SEQUENCE_NAME, size);
+                                    List<Member> batch = new ArrayList<>(size);
+                                    for (int i = 0; i < size; i++) {
+                                        Member member =
+                                                SyntheticMemberGenerator.create(firstIndex + i);
+                                        member.setId(firstId + i);
+                                        batch.add(member);
+                                    }
+                                    try (MongoOperation.Scope scope =
+                                            MongoOperation.start("seed")) {
+                                        collection.insertMany(batch, options);
+                                    }
+                                    inserted.addAndGet(size);
+                                }));
+            }
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Synthetic seeding interrupted after " + inserted.get() + " members");
+        } catch (ExecutionException e) {
+            LOG.error(
+                    "Synthetic seeding failed after " + inserted.get() + " members", e.getCause());
+        } finally {
+            writers.shutdownNow();
         }
+        double seconds = Math.max(System.nanoTime() - start, 1L) / 1_000_000_000.0;
+        LOG.infof(
+                "Seeded %d synthetic members in %.1f s (%.0f members/s).",
+                inserted.get(), seconds, inserted.get() / seconds);
+        return inserted.get();
     }
 }
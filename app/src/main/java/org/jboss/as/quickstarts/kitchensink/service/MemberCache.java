@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.logging.Logger;
+
+/**
+ * In-memory view of the members collection, keyed and ordered by member id.
+ *
+ * <p>Members are immutable once persisted, so an entry never goes stale. The cache is warmed at
+ * startup by {@link MemberSnapshotService} and kept current by observing the {@link Member} event
+ * fired by {@link MemberRegistration}. Lookups that miss simply fall back to MongoDB.
+ *
+ * <p>With {@code kitchensink.member-cache.off-heap.enabled} the members are held in an {@link
+ * OffHeapMemberStore} instead of as objects. Once warmed, it also offers the member list ordered by
+ * name (see {@link #listByName()}) while registrations still write through to MongoDB. Callers
+ * check that list against the member count before serving it; delta sync and the stream replay
+ * still query MongoDB.
+ */
+@ApplicationScoped
+public class MemberCache {
+
+    private static final Logger LOG = Logger.getLogger(MemberCache.class);
+
+    @ConfigProperty(name = "kitchensink.member-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "kitchensink.member-cache.off-heap.enabled", defaultValue = "false")
+    boolean offHeap;
+
+    @ConfigProperty(name = "kitchensink.member-cache.off-heap.chunk-size", defaultValue = "16M")
+    MemorySize chunkSize;
+
+    @Inject MeterRegistry registry;
+
+    private final ConcurrentSkipListMap<Long, Member> members = new ConcurrentSkipListMap<>();
+    private final AtomicLong modCount = new AtomicLong();
+    private OffHeapMemberStore store;
+    private volatile boolean complete;
+
+    @PostConstruct
+    void init() {
+        if (enabled && offHeap) {
+            store = new OffHeapMemberStore(Math.toIntExact(chunkSize.asLongValue()));
+            Gauge.builder("members.cache.off-heap.bytes", store, OffHeapMemberStore::offHeapBytes)
+                    .description("Direct memory held by the off-heap member cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<Member> get(Long id) {
+        if (!enabled || id == null) {
+            return Optional.empty();
+        }
+        if (store != null) {
+            return Optional.ofNullable(store.get(id));
+        }
+        return Optional.ofNullable(members.get(id));
+    }
+
+    public void put(Member member) {
+        if (!enabled || member == null || member.getId() == null) {
+            return;
+        }
+        if (store != null) {
+            try {
+                if (!store.put(member)) {
+                    return;
+                }
+            } catch (IllegalArgumentException e) {
+                // Lookups fall back to MongoDB; the list stops being served from the cache.
+                complete = false;
+                LOG.warnf("Cannot cache member %d off heap: %s", member.getId(), e.getMessage());
+                return;
+            }
+        } else if (members.putIfAbsent(member.getId(), member) != null) {
+            return;
+        }
+        modCount.incrementAndGet();
+    }
+
+    /**
+     * Members in ascending id order, or by name when held off heap; a weakly consistent view safe
+     * to iterate concurrently.
+     */
+    public Collection<Member> members() {
+        if (store != null) {
+            return store.byName();
+        }
+        return Collections.unmodifiableCollection(members.values());
+    }
+
+    /**
+     * All members ordered by name, if they are held off heap and the cache has been warmed with the
+     * whole collection; empty otherwise, to read them from MongoDB instead.
+     */
+    public Optional<List<Member>> listByName() {
+        if (store == null || !complete) {
+            return Optional.empty();
+        }
+        return Optional.of(store.byName());
+    }
+
+    /** Called once the cache holds every member, so that it can serve {@link #listByName()}. */
+    public void markComplete() {
+        complete = true;
+    }
+
+    public int size() {
+        return store != null ? store.size() : members.size();
+    }
+
+    /** Highest cached member id, or -1 if the cache is empty. */
+    public long maxId() {
+        if (store != null) {
+            return store.maxId();
+        }
+        Map.Entry<Long, Member> last = members.lastEntry();
+        return last != null ? last.getKey() : -1L;
+    }
+
+    /** Incremented on every change, so writers can tell whether anything happened since. */
+    public long modCount() {
+        return modCount.get();
+    }
+
+    void onMemberRegistered(@Observes Member member) {
+        put(member);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.logging.Logger;
+
+/**
+ * Number of members, maintained in memory so that serving it never queries MongoDB.
+ *
+ * <p>The count is seeded once, by {@link DataSeeder} or by counting the collection on first use,
+ * and incremented by observing the {@link Member} event fired for every registration. Members
+ * written around the application (or lost races at startup) are corrected by a periodic
+ * reconciliation against MongoDB; every correction is counted in {@code members.count.drift}.
+ *
+ * <p>A member inserted before the collection is counted, but whose event comes after, would be
+ * counted twice. Registrations therefore mark the time between their insert and their event with
+ * {@link #startWrite()}, and a count that overlapped one is not kept: reconciliation tries again at
+ * its next run, and a first count is returned but counted again next time.
+ */
+@ApplicationScoped
+public class MemberCounter {
+
+    private static final Logger LOG = Logger.getLogger(MemberCounter.class);
+    private static final long UNKNOWN = -1L;
+
+    @Inject MemberRepository memberRepository;
+
+    @Inject MeterRegistry registry;
+
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+    private final AtomicInteger writing = new AtomicInteger();
+    private final AtomicLong writesStarted = new AtomicLong();
+    private Counter corrections;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("members.count", count, AtomicLong::get)
+                .description("Number of members, -1 until known")
+                .register(registry);
+        corrections =
+                Counter.builder("members.count.drift")
+                        .description("Reconciliations that found the maintained count wrong")
+                        .register(registry);
+    }
+
+    /** The number of members, counting the collection only if it is not known yet. */
+    public long get() {
+        long current = count.get();
+        if (current != UNKNOWN) {
+            return current;
+        }
+        long started = writesStarted.get();
+        boolean quiet = writing.get() == 0;
+        long counted = countCollection();
+        if (!quiet || !quietSince(started)) {
+            return counted;
+        }
+        // A registration or another seed may have got there first; theirs is at least as fresh.
+        return count.compareAndSet(UNKNOWN, counted) ? counted : count.get();
+    }
+
+    /** A registration between its insert and its {@link Member} event, until closed. */
+    public interface Write extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /** Marks a registration as started; close the result once its event has been fired. */
+    public Write startWrite() {
+        writing.incrementAndGet();
+        writesStarted.incrementAndGet();
+        return writing::decrementAndGet;
+    }
+
+    /** Seeds the count from a value the caller already has; ignored if it is already known. */
+    public void seed(long members) {
+        if (count.compareAndSet(UNKNOWN, members)) {
+            LOG.debugf("Member count seeded with %d", members);
+        }
+    }
+
+    void onMemberRegistered(@Observes Member member) {
+        // While unknown there is nothing to increment: the first count will include this member.
+        count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : current + 1);
+    }
+
+    @Scheduled(
+            every = "${kitchensink.member-count.reconcile-interval}",
+            delayed = "${kitchensink.member-count.reconcile-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reconcile() {
+        long started = writesStarted.get();
+        if (writing.get() > 0) {
+            return;
+        }
+        long before = count.get();
+        long actual = countCollection();
+        if (before == actual || !quietSince(started)) {
+            return;
+        }
+        // Skipped if a registration changed the count meanwhile; the next run tries again.
+        if (count.compareAndSet(before, actual) && before != UNKNOWN) {
+            corrections.increment();
+            LOG.infof("Member count corrected from %d to %d", before, actual);
+        }
+    }
+
+    /** Whether no registration was between its insert and its event since {@code started}. */
+    private boolean quietSince(long started) {
+        return writing.get() == 0 && writesStarted.get() == started;
+    }
+
+    private long countCollection() {
+        try (MongoOperation.Scope scope = MongoOperation.start("count")) {
+            return memberRepository.count();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.util.InFlightIds;
+import org.jboss.as.quickstarts.kitchensink.util.SnowflakeIdGenerator;
+
+/**
+ * Allocates member ids with the strategy chosen by {@code kitchensink.id.strategy}.
+ *
+ * <ul>
+ *   <li>{@code sequence}: consecutive numbers from the {@code counters} collection, one round trip
+ *       per id.
+ *   <li>{@code snowflake}: time-ordered ids generated locally under a leased node id, see {@link
+ *       NodeLeaseService}. They are far above any sequence number, so existing members keep their
+ *       ids when switching.
+ * </ul>
+ *
+ * <p>Members become visible in MongoDB in the order their writes complete, not in id order. Readers
+ * that remember a position in the members (the delta sync token, the stream's {@code
+ * Last-Event-ID}) only read up to {@link #settledBelow()}, so that they never move past an id that
+ * may still appear. Registrations on this instance {@link #reserve()} their ids, which keeps them
+ * below the bound until {@code kitchensink.id.settle-window} after they were written. Snowflake ids
+ * carry their time, so ids from other instances are held back for the same window after they were
+ * generated; sequence numbers do not, so with several instances the bound only covers the
+ * registrations of this one.
+ */
+@ApplicationScoped
+public class MemberIdGenerator {
+
+    public enum Strategy {
+        SEQUENCE,
+        SNOWFLAKE
+    }
+
+    @ConfigProperty(name = "kitchensink.id.strategy", defaultValue = "sequence")
+    Strategy strategy;
+
+    @Inject SequenceGeneratorService sequenceGenerator;
+
+    @ConfigProperty(name = "kitchensink.id.settle-window", defaultValue = "5s")
+    Duration settleWindow;
+
+    @Inject Instance<NodeLeaseService> nodeLeases;
+
+    private InFlightIds inFlight;
+
+    // Guarded by this: the highest id reserved here, below any id reserved next.
+    private long lastReserved = -1L;
+
+    @PostConstruct
+    void init() {
+        inFlight = new InFlightIds(settleWindow);
+    }
+
+    public long nextId() {
+        return switch (strategy) {
+            case SEQUENCE -> sequenceGenerator.getNextSequence(DataSeeder.MEMBER_ID_SEQUENCE_NAME);
+            case SNOWFLAKE -> nodeLeases.get().generator().nextId();
+        };
+    }
+
+    /**
+     * Allocates the id of a member about to be written; pass it to {@link #release(long)} once the
+     * write is done, whether it succeeded or not. While the id is being allocated every id above
+     * the last one reserved counts as in flight, as the new id will be one of them.
+     */
+    public long reserve() {
+        long floor;
+        synchronized (this) {
+            floor = lastReserved + 1;
+        }
+        inFlight.add(floor);
+        try {
+            long id = nextId();
+            inFlight.add(id);
+            synchronized (this) {
+                lastReserved = Math.max(lastReserved, id);
+            }
+            return id;
+        } finally {
+            inFlight.remove(floor);
+        }
+    }
+
+    /** Ends the write of a {@link #reserve() reserved} id. */
+    public void release(long id) {
+        inFlight.settle(id);
+    }
+
+    /**
+     * Members with an id below this are all visible: no lower id is still being written. Call it
+     * after the query whose results it bounds, so it also covers writes that completed meanwhile.
+     */
+    public long settledBelow() {
+        long bound = inFlight.lowest();
+        if (strategy == Strategy.SNOWFLAKE) {
+            bound =
+                    Math.min(
+                            bound,
+                            SnowflakeIdGenerator.minimumId(
+                                    System.currentTimeMillis() - settleWindow.toMillis()));
+        }
+        return bound;
+    }
+
+    /** The leading members of an id-ordered list that are below {@link #settledBelow()}. */
+    public List<Member> settled(List<Member> members) {
+        long bound = settledBelow();
+        List<Member> settled = new ArrayList<>(members.size());
+        for (Member member : members) {
+            if (member.getId() >= bound) {
+                break;
+            }
+            settled.add(member);
+        }
+        return settled;
+    }
+
+    public Strategy strategy() {
+        return strategy;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bson.RawBsonDocument;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.model.ReadRouting;
+import org.jboss.as.quickstarts.kitchensink.util.HedgedCall;
+import org.jboss.as.quickstarts.kitchensink.util.SingleFlight;
+import org.slf4j.MDC;
+
+/**
+ * Looks members up by id, from the {@link MemberCache} first and MongoDB otherwise.
+ *
+ * <p>A few ids get most of the lookups, so a burst of misses for the same id is collapsed into a
+ * single query: concurrent callers wait for the one in flight and share its result. Each lookup
+ * answered that way increments {@code members.lookup.coalesced}.
+ *
+ * <p>With {@code kitchensink.read-routing.hedge.enabled}, a query that has not answered within
+ * {@code hedge.delay} is also sent to {@code hedge.read-preference}, and the first answer wins. A
+ * "not found" from the hedge is not trusted, since the replica it went to may lag behind; {@code
+ * members.lookup.hedged} counts hedges by whether they won.
+ */
+@ApplicationScoped
+public class MemberLookupService {
+
+    @Inject MemberRepository memberRepository;
+
+    @Inject MemberCache memberCache;
+
+    @Inject MeterRegistry registry;
+
+    @Inject ReadRouting readRouting;
+
+    @ConfigProperty(name = "kitchensink.member-lookup.coalesce", defaultValue = "true")
+    boolean coalesce;
+
+    @ConfigProperty(name = "kitchensink.read-routing.hedge.enabled", defaultValue = "false")
+    boolean hedge;
+
+    @ConfigProperty(name = "kitchensink.read-routing.hedge.delay", defaultValue = "20ms")
+    Duration hedgeDelay;
+
+    @ConfigProperty(
+            name = "kitchensink.read-routing.hedge.read-preference",
+            defaultValue = "secondaryPreferred")
+    String hedgeReadPreference;
+
+    private final SingleFlight<Long, Optional<Member>> inFlightLookups = new SingleFlight<>();
+    private final SingleFlight<Long, Optional<RawBsonDocument>> inFlightRawLookups =
+            new SingleFlight<>();
+    private Counter coalescedLookups;
+    private Counter hedgesWon;
+    private Counter hedgesLost;
+    private ReadPreference hedgeTarget;
+    private ExecutorService hedgeExecutor;
+    private HedgedCall hedgedCall;
+
+    @PostConstruct
+    void init() {
+        coalescedLookups =
+                Counter.builder("members.lookup.coalesced")
+                        .description(
+                                "Member lookups by id answered by a concurrent identical query")
+                        .register(registry);
+        hedgesWon = hedgeCounter("won");
+        hedgesLost = hedgeCounter("lost");
+        if (hedge) {
+            hedgeTarget = readRouting.readPreference(hedgeReadPreference);
+            hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            hedgedCall = new HedgedCall(hedgeExecutor, hedgeDelay);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    private Counter hedgeCounter(String outcome) {
+        return Counter.builder("members.lookup.hedged")
+                .description("Member lookups by id that sent a hedged query")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public Optional<Member> findById(Long id) {
+        // Persisted members never change, so a cached copy is always current.
+        Optional<Member> cached = memberCache.get(id);
+        if (cached.isPresent() || id == null) {
+            return cached;
+        }
+        return coalesced(
+                inFlightLookups, id, () -> hedged(() -> memberRepository.findByIdOptional(id)));
+    }
+
+    public Optional<Member> findCachedById(Long id) {
+        return memberCache.get(id);
+    }
+
+    /** The member's document as stored, without decoding it; bypasses the member cache. */
+    public Optional<RawBsonDocument> findRawById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return coalesced(
+                inFlightRawLookups, id, () -> hedged(() -> memberRepository.findRawById(id)));
+    }
+
+    private <V> Optional<V> hedged(Callable<Optional<V>> query) throws Exception {
+        if (!hedge) {
+            return query.call();
+        }
+        // Both attempts run on other threads, which need the request's MDC (correlation id and
+        // read-after time) for their queries.
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        HedgedCall.Result<Optional<V>> result =
+                hedgedCall.call(
+                        withMdc(mdc, query),
+                        withMdc(
+                                mdc,
+                                () -> {
+                                    try (ReadRouting.Scope scope =
+                                            ReadRouting.prefer(hedgeTarget)) {
+                                        return query.call();
+                                    }
+                                }),
+                        Optional::isPresent);
+        if (result.hedged()) {
+            (result.hedgeWon() ? hedgesWon : hedgesLost).increment();
+        }
+        return result.value();
+    }
+
+    private static <V> Callable<V> withMdc(Map<String, String> mdc, Callable<V> call) {
+        return () -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                return call.call();
+            } finally {
+                MDC.clear();
+            }
+        };
+    }
+
+    private <V> V coalesced(SingleFlight<Long, V> inFlight, Long id, Callable<V> query) {
+        try {
+            if (!coalesce) {
+                return query.call();
+            }
+            SingleFlight.Result<V> result = inFlight.execute(id, query);
+            if (result.shared()) {
+                coalescedLookups.increment();
+            }
+            return result.value();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
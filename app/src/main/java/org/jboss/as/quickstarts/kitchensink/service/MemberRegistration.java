@@ -16,27 +16,113 @@
  */
 package org.jboss.as.quickstarts.kitchensink.service;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.WriteError;
+import com.mongodb.bulk.BulkWriteError;
 import io.micrometer.core.annotation.Counted;
 import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.bson.BsonValue;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.jboss.as.quickstarts.kitchensink.metrics.RegistrationMetrics;
+import org.jboss.as.quickstarts.kitchensink.metrics.RegistrationMetrics.Outcome;
+import org.jboss.as.quickstarts.kitchensink.metrics.RegistrationMetrics.Phase;
+import org.jboss.as.quickstarts.kitchensink.model.CausalReads;
 import org.jboss.as.quickstarts.kitchensink.model.Member;
 import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.util.GroupCommitQueue;
+import org.jboss.as.quickstarts.kitchensink.util.SingleFlight;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class MemberRegistration {
 
     private static final Logger LOG = Logger.getLogger(MemberRegistration.class);
-    private static final String MEMBER_ID_SEQUENCE_NAME = "memberId";
+
+    /** Name MongoDB gives the unique index {@link DataSeeder} creates on {@code email}. */
+    static final String EMAIL_INDEX = "email_1";
 
     @Inject MemberRepository memberRepository;
 
-    @Inject SequenceGeneratorService sequenceGenerator;
+    @Inject MemberIdGenerator memberIds;
+
+    @Inject MemberCounter memberCounter;
+
+    @Inject CausalReads causalReads;
 
     @Inject Event<Member> memberEventSrc;
 
+    @Inject RegistrationMetrics registrationMetrics;
+
+    @Inject MeterRegistry registry;
+
+    /**
+     * Group commit: collect concurrent inserts for up to {@code max-wait} or {@code max-batch}
+     * members, whichever comes first, and write them with one {@code insertMany}. Trades a little
+     * latency per registration for far fewer round trips at peak load.
+     */
+    @ConfigProperty(name = "kitchensink.registration.group-commit.enabled", defaultValue = "false")
+    boolean groupCommit;
+
+    @ConfigProperty(name = "kitchensink.registration.group-commit.max-wait", defaultValue = "5ms")
+    Duration groupCommitMaxWait;
+
+    @ConfigProperty(name = "kitchensink.registration.group-commit.max-batch", defaultValue = "100")
+    int groupCommitMaxBatch;
+
+    private final SingleFlight<String, Attempt> inFlightRegistrations = new SingleFlight<>();
+    private Counter coalescedRegistrations;
+    private GroupCommitQueue<Member> persistQueue;
+
+    @PostConstruct
+    void init() {
+        coalescedRegistrations =
+                Counter.builder("members.registration.coalesced")
+                        .description(
+                                "Registrations answered by a concurrent registration of the same"
+                                        + " email")
+                        .register(registry);
+        if (groupCommit) {
+            DistributionSummary batchSizes =
+                    DistributionSummary.builder("members.registration.batch.size")
+                            .description("Members written per group-commit insertMany")
+                            .register(registry);
+            persistQueue =
+                    new GroupCommitQueue<>(
+                            "member-group-commit",
+                            groupCommitMaxBatch,
+                            groupCommitMaxWait,
+                            this::persistBatch,
+                            batchSizes::record);
+            LOG.infof(
+                    "Group commit enabled: up to %d members or %s per insertMany",
+                    groupCommitMaxBatch, groupCommitMaxWait);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (persistQueue != null) {
+            persistQueue.close();
+        }
+    }
+
     // Custom exception for duplicate email
     public static class EmailAlreadyExistsException extends Exception {
         public EmailAlreadyExistsException(String message) {
@@ -55,25 +141,160 @@ public class MemberRegistration {
             LOG.error("REG_SVC: Attempt to register a null member.");
             throw new IllegalArgumentException("Member to register cannot be null.");
         }
-        LOG.info("REG_SVC: Attempting to register member: " + member.email);
+        LOG.debugf("REG_SVC: Attempting to register member: %s", member.email);
+
+        RegistrationMetrics.Timing timing = registrationMetrics.begin();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            if (member.email == null) {
+                registerOnce(member, timing);
+            } else {
+                registerCoalesced(member, timing);
+            }
+            outcome = Outcome.CREATED;
+            // Whatever this request reads next, e.g. the member list, includes the new member.
+            causalReads.readAfterLatestWrite();
+        } catch (EmailAlreadyExistsException e) {
+            outcome = Outcome.DUPLICATE;
+            throw e;
+        } finally {
+            timing.finish(outcome);
+        }
+    }
+
+    /** The outcome of one registration attempt for {@code email}. */
+    private record Attempt(String email, boolean created) {}
 
-        LOG.info("REG_SVC: Checking email uniqueness for: " + member.email);
+    /**
+     * Concurrent registrations of the same normalized email (double submits, client retries) share
+     * one uniqueness check, sequence increment and insert. Followers submitting the exact same
+     * address get the duplicate outcome as soon as the leader is done, whether the leader created
+     * the member or found it already registered, or the leader's error. Followers spelling it
+     * differently (the unique index is case-sensitive) register on their own afterwards.
+     */
+    private void registerCoalesced(Member member, RegistrationMetrics.Timing timing)
+            throws EmailAlreadyExistsException {
+        String key = member.email.toLowerCase(Locale.ROOT);
+        while (true) {
+            SingleFlight.Result<Attempt> result;
+            try {
+                result = inFlightRegistrations.execute(key, () -> attempt(member, timing));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            if (!result.shared()) {
+                if (!result.value().created()) {
+                    throw new EmailAlreadyExistsException("Email already exists: " + member.email);
+                }
+                return;
+            }
+            if (member.email.equals(result.value().email())) {
+                coalescedRegistrations.increment();
+                LOG.debugf("REG_SVC: Coalesced duplicate registration of %s", member.email);
+                throw new EmailAlreadyExistsException("Email already exists: " + member.email);
+            }
+        }
+    }
+
+    private Attempt attempt(Member member, RegistrationMetrics.Timing timing) {
+        try {
+            registerOnce(member, timing);
+            return new Attempt(member.email, true);
+        } catch (EmailAlreadyExistsException e) {
+            return new Attempt(member.email, false);
+        }
+    }
+
+    private void registerOnce(Member member, RegistrationMetrics.Timing timing)
+            throws EmailAlreadyExistsException {
+        timing.start(Phase.EMAIL_CHECK);
         if (memberRepository.findByEmail(member.email).isPresent()) { // USE REPOSITORY
-            LOG.warn("REG_SVC: Email already exists: " + member.email);
+            LOG.debugf("REG_SVC: Email already exists: %s", member.email);
             throw new EmailAlreadyExistsException("Email already exists: " + member.email);
         }
 
-        Long newId = sequenceGenerator.getNextSequence(MEMBER_ID_SEQUENCE_NAME);
-        member.setId(newId);
-        LOG.info("REG_SVC: Assigned new ID " + newId + " to member: " + member.email);
+        timing.start(Phase.SEQUENCE);
+        long id = memberIds.reserve();
+        member.setId(id);
+
+        timing.start(Phase.PERSIST);
+        try (MemberCounter.Write write = memberCounter.startWrite()) {
+            try {
+                persist(member);
+            } finally {
+                memberIds.release(id);
+            }
+            LOG.debugf("REG_SVC: Member persisted: %s with ID: %d", member.email, member.getId());
+
+            timing.start(Phase.EVENT);
+            memberEventSrc.fire(member);
+        }
+        timing.end();
+        LOG.infof("REG_SVC: Registered member %d", member.getId());
+    }
+
+    private void persist(Member member) throws EmailAlreadyExistsException {
+        if (persistQueue != null) {
+            try {
+                persistQueue.write(member);
+            } catch (EmailAlreadyExistsException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return;
+        }
+        try (MongoOperation.Scope scope = MongoOperation.start("persist")) {
+            memberRepository.persist(member); // USE REPOSITORY
+        } catch (MongoWriteException e) {
+            if (isDuplicateEmail(e.getError())) {
+                // Lost a race with a concurrent registration after the email check.
+                throw new EmailAlreadyExistsException("Email already exists: " + member.email);
+            }
+            throw e;
+        }
+    }
 
-        LOG.info("REG_SVC: Persisting member: " + member.email + " with ID: " + member.getId());
-        memberRepository.persist(member); // USE REPOSITORY
-        LOG.info("REG_SVC: Member persisted: " + member.email + " with ID: " + member.getId());
+    /**
+     * Whether a write failed on the unique email index. Other duplicate keys, such as an {@code
+     * _id} handed out twice, are not the registrant's fault and must surface as errors.
+     */
+    static boolean isDuplicateEmail(WriteError error) {
+        if (error.getCategory() != ErrorCategory.DUPLICATE_KEY) {
+            return false;
+        }
+        BsonValue keyPattern = error.getDetails().get("keyPattern");
+        if (keyPattern != null && keyPattern.isDocument()) {
+            return keyPattern.asDocument().containsKey("email");
+        }
+        // "E11000 duplicate key error collection: db.members index: email_1 dup key: { ... }"
+        String message = error.getMessage();
+        return message != null && message.contains("index: " + EMAIL_INDEX + " ");
+    }
 
-        LOG.info("REG_SVC: Firing member registration event for: " + member.email);
-        memberEventSrc.fire(member);
-        LOG.info("REG_SVC: Fired member registration event for: " + member.email);
+    /** Writes a group-commit batch, mapping duplicate-key errors back to the members they hit. */
+    private Map<Integer, Exception> persistBatch(List<Member> batch) {
+        try (MongoOperation.Scope scope = MongoOperation.start("persistBatch")) {
+            memberRepository.persistAll(batch);
+            return Map.of();
+        } catch (MongoBulkWriteException e) {
+            Map<Integer, Exception> failures = new HashMap<>();
+            for (BulkWriteError error : e.getWriteErrors()) {
+                Member member = batch.get(error.getIndex());
+                failures.put(
+                        error.getIndex(),
+                        isDuplicateEmail(error)
+                                ? new EmailAlreadyExistsException(
+                                        "Email already exists: " + member.email)
+                                : new MongoException(error.getCode(), error.getMessage()));
+            }
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+            return failures;
+        }
     }
 
     // emailExists method was effectively inlined into register or uses repository directly
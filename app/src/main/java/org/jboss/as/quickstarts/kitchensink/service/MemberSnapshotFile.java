@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+
+/**
+ * Compact binary snapshot of the members collection, written and read through memory-mapped files.
+ *
+ * <p>Layout: a header of {@code magic (int), version (int), stamp (long), count (int)} followed by
+ * {@code count} records of {@code id (long)} and three length-prefixed UTF-8 strings (name, email,
+ * phone number; a length of -1 encodes {@code null}). The stamp is the highest member id contained
+ * in the snapshot, so a reader only needs to fetch documents with a greater id to catch up.
+ */
+public final class MemberSnapshotFile {
+
+    static final int MAGIC = 0x4B534D53; // "KSMS"
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES;
+
+    /** Contents of a snapshot file. */
+    public record Snapshot(long stamp, List<Member> members) {}
+
+    private MemberSnapshotFile() {}
+
+    /**
+     * Writes the members to a temporary file next to {@code path} and atomically moves it into
+     * place, so readers never observe a partially written snapshot.
+     */
+    public static void write(Path path, long stamp, Collection<Member> members) throws IOException {
+        List<Member> records = new ArrayList<>(members);
+        long size = HEADER_SIZE;
+        for (Member member : records) {
+            size += Long.BYTES + encodedLength(member.name);
+            size += encodedLength(member.email) + encodedLength(member.phoneNumber);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + size + " bytes exceeds a single mapping");
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel =
+                FileChannel.open(
+                        tmp,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(stamp).putInt(records.size());
+            for (Member member : records) {
+                buffer.putLong(member.getId());
+                putString(buffer, member.name);
+                putString(buffer, member.email);
+                putString(buffer, member.phoneNumber);
+            }
+            buffer.force();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot, or returns {@code null} if the file does not exist.
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static Snapshot read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a member snapshot: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+            long stamp = buffer.getLong();
+            int count = buffer.getInt();
+            List<Member> members = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Member member = new Member();
+                member.setId(buffer.getLong());
+                member.name = getString(buffer);
+                member.email = getString(buffer);
+                member.phoneNumber = getString(buffer);
+                members.add(member);
+            }
+            return new Snapshot(stamp, members);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt member snapshot: " + path, e);
+        }
+    }
+
+    private static long encodedLength(String value) {
+        if (value == null) {
+            return Integer.BYTES;
+        }
+        long length = Integer.BYTES;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)
+                    && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void putString(MappedByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
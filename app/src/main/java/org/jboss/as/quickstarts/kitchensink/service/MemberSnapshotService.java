@@ -0,0 +1,215 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import io.quarkus.arc.profile.UnlessBuildProfile;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.util.SnowflakeIdGenerator;
+import org.jboss.logging.Logger;
+
+/**
+ * Warms the {@link MemberCache} at startup from a local snapshot file plus a small catch-up query,
+ * instead of scanning the whole members collection, and periodically rewrites that snapshot. The
+ * same catch-up query also runs periodically to pick up members registered elsewhere.
+ */
+@UnlessBuildProfile("test")
+@ApplicationScoped
+public class MemberSnapshotService implements StartupTask {
+
+    private static final Logger LOG = Logger.getLogger(MemberSnapshotService.class);
+
+    @Inject MemberCache memberCache;
+
+    @Inject MemberRepository memberRepository;
+
+    @Inject MemberIdGenerator memberIds;
+
+    @ConfigProperty(name = "kitchensink.snapshot.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "kitchensink.snapshot.path", defaultValue = "data/members.snapshot")
+    String snapshotPath;
+
+    /**
+     * Member ids are allocated before the document is persisted, so a registration in flight while
+     * the snapshot was taken can land with an id just below the stamp. The catch-up query re-reads
+     * this many ids below the stamp to pick those up.
+     */
+    @ConfigProperty(name = "kitchensink.snapshot.catch-up-overlap", defaultValue = "1000")
+    long catchUpOverlap;
+
+    /**
+     * The same overlap for snowflake ids, as time: 1000 ids are a fraction of a millisecond there,
+     * while ids from other nodes and inserts in flight can land anywhere within their clock skew
+     * and insert latency below the stamp.
+     */
+    @ConfigProperty(name = "kitchensink.snapshot.catch-up-window", defaultValue = "2m")
+    Duration catchUpWindow;
+
+    private Path path;
+    private volatile long lastWrittenModCount = -1L;
+    private volatile boolean warmedUp;
+
+    @PostConstruct
+    void init() {
+        path = Path.of(snapshotPath);
+    }
+
+    @Override
+    public String name() {
+        return "member-cache";
+    }
+
+    /** Runs after {@link DataSeeder}, so a freshly seeded collection is picked up too. */
+    @Override
+    public int order() {
+        return 200;
+    }
+
+    @Override
+    public void run() {
+        if (!memberCache.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long stamp = enabled ? loadSnapshot() : -1L;
+        long fetched = catchUp(stamp);
+        LOG.infof(
+                "Member cache warmed with %d members (%d fetched from MongoDB) in %d ms",
+                memberCache.size(), fetched, (System.nanoTime() - start) / 1_000_000);
+        warmedUp = true;
+        memberCache.markComplete();
+    }
+
+    /**
+     * Picks up members registered through other instances, which this one never sees a {@link
+     * Member} event for.
+     */
+    @Scheduled(
+            every = "${kitchensink.member-cache.refresh-interval}",
+            delayed = "${kitchensink.member-cache.refresh-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refresh() {
+        if (!memberCache.isEnabled() || !warmedUp) {
+            return;
+        }
+        try {
+            long fetched = catchUp(memberCache.maxId());
+            LOG.debugf("Member cache refreshed, %d members fetched from MongoDB", fetched);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to refresh the member cache from MongoDB", e);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        writeIfChanged();
+    }
+
+    @Scheduled(
+            every = "${kitchensink.snapshot.interval}",
+            delayed = "${kitchensink.snapshot.interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void writePeriodically() {
+        writeIfChanged();
+    }
+
+    void writeIfChanged() {
+        // A partially warmed cache would be stamped with its highest id and hide the gaps below.
+        if (!enabled || !memberCache.isEnabled() || !warmedUp) {
+            return;
+        }
+        long modCount = memberCache.modCount();
+        if (modCount == lastWrittenModCount) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            // Taken before iterating: members added meanwhile may be written too, which the
+            // catch-up query on the next start simply reads again.
+            long stamp = memberCache.maxId();
+            MemberSnapshotFile.write(path, stamp, memberCache.members());
+            lastWrittenModCount = modCount;
+            LOG.infof(
+                    "Wrote member snapshot to %s (stamp %d) in %d ms",
+                    path, stamp, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Failed to write member snapshot to " + path, e);
+        }
+    }
+
+    private long loadSnapshot() {
+        try {
+            MemberSnapshotFile.Snapshot snapshot = MemberSnapshotFile.read(path);
+            if (snapshot == null) {
+                LOG.infof("No member snapshot at %s, warming the cache from MongoDB", path);
+                return -1L;
+            }
+            snapshot.members().forEach(memberCache::put);
+            LOG.infof(
+                    "Loaded %d members from snapshot %s (stamp %d)",
+                    snapshot.members().size(), path, snapshot.stamp());
+            return snapshot.stamp();
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable member snapshot " + path + ", doing a full load", e);
+            return -1L;
+        }
+    }
+
+    private long catchUp(long stamp) {
+        long fetched = 0;
+        try (MongoOperation.Scope scope = MongoOperation.start("cacheCatchUp");
+                MongoCursor<Member> cursor = catchUpQuery(stamp).iterator()) {
+            while (cursor.hasNext()) {
+                memberCache.put(cursor.next());
+                fetched++;
+            }
+        }
+        return fetched;
+    }
+
+    private FindIterable<Member> catchUpQuery(long stamp) {
+        return stamp < 0
+                ? memberRepository.readCollection().find()
+                : memberRepository.readCollection().find(Filters.gt("_id", catchUpFloor(stamp)));
+    }
+
+    /** The catch-up reads the members with an id above this, to cover the overlap below stamp. */
+    long catchUpFloor(long stamp) {
+        long generatedAt = SnowflakeIdGenerator.timestampOf(stamp);
+        // A stamp taken before switching strategies is still a sequence number.
+        if (memberIds.strategy() == MemberIdGenerator.Strategy.SNOWFLAKE
+                && generatedAt > SnowflakeIdGenerator.EPOCH_MILLIS) {
+            return SnowflakeIdGenerator.minimumId(generatedAt - catchUpWindow.toMillis()) - 1;
+        }
+        return stamp - catchUpOverlap;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.mongodb.runtime.MongoClientCustomizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.as.quickstarts.kitchensink.health.Saturable;
+
+/**
+ * Tracks how many connections of each MongoDB connection pool are checked out and how many threads
+ * wait for one. Registered on the client through {@link MongoClientCustomizer}.
+ *
+ * <p>Exported as the {@code mongodb.pool.in.use} and {@code mongodb.pool.wait.queue} gauges and the
+ * {@code mongodb.pool.checkout.wait} timer (tagged by status).
+ */
+@ApplicationScoped
+public class MongoPoolMonitor implements MongoClientCustomizer, ConnectionPoolListener, Saturable {
+
+    static final class PoolState {
+        volatile int maxSize;
+        volatile int minSize;
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger checkedOut = new AtomicInteger();
+        final AtomicInteger waiting = new AtomicInteger();
+    }
+
+    private final Map<ServerId, PoolState> pools = new ConcurrentHashMap<>();
+
+    @Inject MeterRegistry registry;
+
+    private Timer checkoutSucceeded;
+    private Timer checkoutFailed;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("mongodb.pool.in.use", this, MongoPoolMonitor::checkedOut)
+                .description("MongoDB connections currently checked out")
+                .register(registry);
+        Gauge.builder("mongodb.pool.wait.queue", this, MongoPoolMonitor::waiting)
+                .description("Threads waiting to check out a MongoDB connection")
+                .register(registry);
+        checkoutSucceeded = checkoutTimer("success");
+        checkoutFailed = checkoutTimer("failure");
+    }
+
+    private Timer checkoutTimer(String status) {
+        return Timer.builder("mongodb.pool.checkout.wait")
+                .description("Time spent waiting to check out a MongoDB connection")
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public MongoClientSettings.Builder customize(MongoClientSettings.Builder builder) {
+        return builder.applyToConnectionPoolSettings(
+                settings -> settings.addConnectionPoolListener(this));
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        PoolState pool = pool(event.getServerId());
+        pool.maxSize = event.getSettings().getMaxSize();
+        pool.minSize = event.getSettings().getMinSize();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        pool(event.getConnectionId().getServerId()).open.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        pool(event.getConnectionId().getServerId()).open.decrementAndGet();
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        pools.remove(event.getServerId());
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        pool(event.getServerId()).waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        PoolState pool = pool(event.getConnectionId().getServerId());
+        pool.waiting.decrementAndGet();
+        pool.checkedOut.incrementAndGet();
+        checkoutSucceeded.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        pool(event.getServerId()).waiting.decrementAndGet();
+        checkoutFailed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        pool(event.getConnectionId().getServerId()).checkedOut.decrementAndGet();
+    }
+
+    /** Connections currently checked out, summed over all pools. */
+    public int checkedOut() {
+        return pools.values().stream().mapToInt(pool -> pool.checkedOut.get()).sum();
+    }
+
+    /** Open connections, summed over all pools. */
+    public int openConnections() {
+        return pools.values().stream().mapToInt(pool -> pool.open.get()).sum();
+    }
+
+    /** Whether every pool holds at least its configured minimum of open connections. */
+    public boolean atMinimumSize() {
+        return pools.values().stream().allMatch(pool -> pool.open.get() >= pool.minSize);
+    }
+
+    /** Threads currently waiting to check out a connection, summed over all pools. */
+    public int waiting() {
+        return pools.values().stream().mapToInt(pool -> Math.max(0, pool.waiting.get())).sum();
+    }
+
+    @Override
+    public String saturationName() {
+        return "mongodb-pool";
+    }
+
+    /** Fill level of the busiest pool; a full pool with threads waiting on it counts as 1. */
+    @Override
+    public double saturation() {
+        double saturation = 0;
+        for (PoolState pool : pools.values()) {
+            if (pool.waiting.get() > 0 && pool.checkedOut.get() >= pool.maxSize) {
+                return 1;
+            }
+            if (pool.maxSize > 0) {
+                saturation = Math.max(saturation, (double) pool.checkedOut.get() / pool.maxSize);
+            }
+        }
+        return Math.min(saturation, 1);
+    }
+
+    private PoolState pool(ServerId serverId) {
+        return pools.computeIfAbsent(serverId, id -> new PoolState());
+    }
+}
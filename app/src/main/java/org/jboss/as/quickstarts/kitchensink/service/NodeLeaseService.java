@@ -0,0 +1,234 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import io.quarkus.arc.profile.UnlessBuildProfile;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.util.SnowflakeIdGenerator;
+import org.jboss.logging.Logger;
+
+/**
+ * Leases a node id for the {@link SnowflakeIdGenerator} from the {@code node_leases} collection and
+ * keeps it alive with heartbeats.
+ *
+ * <p>Each lease document holds the node id, its owner and the time its lease expires. A node takes
+ * a free or expired id with a conditional upsert, and starts generating ids no earlier than the
+ * previous expiry, which the previous owner never generated ids past. If heartbeats stop (MongoDB
+ * unreachable, or the lease taken over after a long pause), the generator stops issuing ids at the
+ * expiry and the next id request leases a node id again; a heartbeat finding the lease taken over
+ * drops the generator right away. So MongoDB only has to be reachable once per lease TTL, not for
+ * every id.
+ */
+@UnlessBuildProfile("test")
+@ApplicationScoped
+public class NodeLeaseService implements StartupTask {
+
+    private static final Logger LOG = Logger.getLogger(NodeLeaseService.class);
+    private static final String LEASES_COLLECTION_NAME = "node_leases";
+    private static final String OWNER_FIELD = "owner";
+    private static final String EXPIRES_FIELD = "expiresAt";
+
+    @Inject MongoClient mongoClient;
+
+    @Inject MemberRepository memberRepository;
+
+    @Inject MemberIdGenerator memberIds;
+
+    @ConfigProperty(name = "quarkus.mongodb.database")
+    String databaseName;
+
+    @ConfigProperty(name = "kitchensink.id.node-lease.ttl", defaultValue = "60s")
+    Duration ttl;
+
+    final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    private volatile SnowflakeIdGenerator generator;
+
+    @Override
+    public String name() {
+        return "node-lease";
+    }
+
+    /** Runs before {@link DataSeeder}, which may already need ids. */
+    @Override
+    public int order() {
+        return 50;
+    }
+
+    @Override
+    public void run() {
+        if (memberIds.strategy() == MemberIdGenerator.Strategy.SNOWFLAKE) {
+            generator();
+        }
+    }
+
+    /**
+     * The generator of the node id currently leased, leasing one first if there is none or its
+     * lease expired.
+     */
+    public SnowflakeIdGenerator generator() {
+        SnowflakeIdGenerator current = generator;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+        synchronized (this) {
+            if (generator != null && generator.isExpired()) {
+                LOG.warnf(
+                        "Lease of node id %d expired without renewal, leasing a new one",
+                        generator.nodeId());
+                generator.close();
+                generator = null;
+            }
+            if (generator == null) {
+                generator = lease();
+            }
+            return generator;
+        }
+    }
+
+    @Scheduled(
+            every = "${kitchensink.id.node-lease.heartbeat}",
+            delayed = "${kitchensink.id.node-lease.heartbeat}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void heartbeat() {
+        SnowflakeIdGenerator current = generator;
+        if (current == null) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        try (MongoOperation.Scope scope = MongoOperation.start("renewNodeLease")) {
+            long renewed =
+                    leases().updateOne(
+                                    Filters.and(
+                                            Filters.eq("_id", current.nodeId()),
+                                            Filters.eq(OWNER_FIELD, owner)),
+                                    Updates.set(EXPIRES_FIELD, expiresAt))
+                            .getMatchedCount();
+            if (renewed == 1) {
+                current.extendLease(expiresAt);
+                return;
+            }
+        } catch (RuntimeException e) {
+            // The lease stays valid until its expiry; the next heartbeat tries again.
+            LOG.warn("Failed to renew the lease of node id " + current.nodeId(), e);
+            return;
+        }
+        LOG.warnf("Lost the lease of node id %d, leasing a new one", current.nodeId());
+        current.close();
+        synchronized (this) {
+            if (generator == current) {
+                generator = null;
+            }
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        SnowflakeIdGenerator current = generator;
+        if (current == null) {
+            return;
+        }
+        long floor = current.close();
+        try (MongoOperation.Scope scope = MongoOperation.start("releaseNodeLease")) {
+            // Expiring the lease at the floor lets the next node take the id right away.
+            leases().updateOne(
+                            Filters.and(
+                                    Filters.eq("_id", current.nodeId()),
+                                    Filters.eq(OWNER_FIELD, owner)),
+                            Updates.combine(
+                                    Updates.set(EXPIRES_FIELD, floor), Updates.unset(OWNER_FIELD)));
+            LOG.infof("Released the lease of node id %d", current.nodeId());
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to release the lease of node id " + current.nodeId(), e);
+        }
+    }
+
+    private SnowflakeIdGenerator lease() {
+        // Ids from before the switch to this strategy (sequence numbers, or snowflake ids from a
+        // clock that was ahead) must stay below every new id.
+        long maxId = memberRepository.maxId();
+        long minimumFloor =
+                maxId < SnowflakeIdGenerator.minimumId(SnowflakeIdGenerator.EPOCH_MILLIS)
+                        ? SnowflakeIdGenerator.EPOCH_MILLIS
+                        : SnowflakeIdGenerator.timestampOf(maxId) + 1;
+        if (minimumFloor > System.currentTimeMillis() + ttl.toMillis()) {
+            throw new IllegalStateException(
+                    "Existing member id "
+                            + maxId
+                            + " is too far ahead of the clock for snowflake ids");
+        }
+        int start = ThreadLocalRandom.current().nextInt(SnowflakeIdGenerator.MAX_NODE_ID + 1);
+        for (int i = 0; i <= SnowflakeIdGenerator.MAX_NODE_ID; i++) {
+            int nodeId = (start + i) & SnowflakeIdGenerator.MAX_NODE_ID;
+            long now = System.currentTimeMillis();
+            long expiresAt = now + ttl.toMillis();
+            Document previous;
+            try (MongoOperation.Scope scope = MongoOperation.start("acquireNodeLease")) {
+                previous =
+                        leases().findOneAndUpdate(
+                                        Filters.and(
+                                                Filters.eq("_id", nodeId),
+                                                Filters.lt(EXPIRES_FIELD, now)),
+                                        Updates.combine(
+                                                Updates.set(OWNER_FIELD, owner),
+                                                Updates.set(EXPIRES_FIELD, expiresAt)),
+                                        new FindOneAndUpdateOptions()
+                                                .upsert(true)
+                                                .returnDocument(ReturnDocument.BEFORE));
+            } catch (MongoServerException e) {
+                if (ErrorCategory.fromErrorCode(e.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    // Held by a live node: the upsert tried to insert a second document.
+                    continue;
+                }
+                throw e;
+            }
+            long floor =
+                    Math.max(
+                            minimumFloor,
+                            previous != null
+                                    ? previous.get(EXPIRES_FIELD, Number.class).longValue()
+                                    : 0L);
+            LOG.infof("Leased node id %d for snowflake ids, floor %d", nodeId, floor);
+            return new SnowflakeIdGenerator(nodeId, floor, expiresAt, System::currentTimeMillis);
+        }
+        throw new IllegalStateException(
+                "All " + (SnowflakeIdGenerator.MAX_NODE_ID + 1) + " node ids are leased");
+    }
+
+    private MongoCollection<Document> leases() {
+        return mongoClient.getDatabase(databaseName).getCollection(LEASES_COLLECTION_NAME);
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+
+/**
+ * Members kept outside the Java heap, so that holding millions of them adds nothing for the garbage
+ * collector to trace or copy. Members are only materialized as short-lived objects when read.
+ *
+ * <p>Records are appended to direct memory chunks, each as {@code id (long)} followed by name,
+ * email and phone number as UTF-8 prefixed with a {@code short} length (-1 encodes {@code null}). A
+ * record's address is its chunk index in the high 32 bits and its position in the low ones.
+ *
+ * <ul>
+ *   <li>The id index is an open-addressing hash table of {@code id, address} pairs, also in direct
+ *       memory. Entries are published with release semantics, so lookups take no lock.
+ *   <li>The name index is an array of addresses ordered by name (UTF-8 byte order, as MongoDB sorts
+ *       strings without a collation) and then id. New members are collected unsorted and merged in
+ *       on the next read of the index, so bulk loads and registrations cost O(1) each.
+ * </ul>
+ *
+ * <p>Members never change or go away once persisted, so records are never updated or freed; a
+ * member put twice is kept once. Writers are serialized; readers are not blocked by them.
+ */
+public final class OffHeapMemberStore {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int SLOT_SIZE = Long.BYTES * 2;
+    private static final int NAME_OFFSET = Long.BYTES;
+    private static final VarHandle LONG =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final int chunkSize;
+
+    // Written under this, read without locking.
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private volatile ByteBuffer table;
+    private volatile long[] byName = new long[0];
+    private volatile int size;
+    private volatile long maxId = -1L;
+
+    // Guarded by this.
+    private int tableMask;
+    private int position;
+    private long[] unsorted = new long[64];
+    private int unsortedCount;
+
+    /**
+     * @param chunkSize bytes of direct memory allocated at a time for records
+     */
+    public OffHeapMemberStore(int chunkSize) {
+        if (chunkSize < 1024) {
+            throw new IllegalArgumentException("Chunk size too small: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.table = newTable(1024);
+        this.tableMask = 1024 - 1;
+        this.position = chunkSize;
+    }
+
+    /**
+     * Stores the member unless its id is already there.
+     *
+     * @return whether it was added
+     * @throws IllegalArgumentException if it has no id or a field is too long to store
+     */
+    public synchronized boolean put(Member member) {
+        Long id = member.getId();
+        if (id == null || id < 0) {
+            throw new IllegalArgumentException("Cannot store a member without an id: " + id);
+        }
+        if (address(id) != EMPTY) {
+            return false;
+        }
+        byte[] name = encode(member.name);
+        byte[] email = encode(member.email);
+        byte[] phone = encode(member.phoneNumber);
+        int recordSize =
+                Long.BYTES + Short.BYTES * 3 + length(name) + length(email) + length(phone);
+        if (recordSize > chunkSize) {
+            throw new IllegalArgumentException("Member " + id + " does not fit in a chunk");
+        }
+        if (position + recordSize > chunkSize) {
+            ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = ByteBuffer.allocateDirect(chunkSize);
+            chunks = grown;
+            position = 0;
+        }
+        ByteBuffer chunk = chunks[chunks.length - 1];
+        long address = ((long) (chunks.length - 1) << 32) | position;
+        chunk.putLong(position, id);
+        int at = putString(chunk, position + NAME_OFFSET, name);
+        at = putString(chunk, at, email);
+        putString(chunk, at, phone);
+        position += recordSize;
+
+        if ((size + 1) * 2L > tableMask + 1L) {
+            resize();
+        }
+        insert(table, tableMask, id, address);
+        if (unsortedCount == unsorted.length) {
+            unsorted = Arrays.copyOf(unsorted, unsortedCount * 2);
+        }
+        unsorted[unsortedCount++] = address;
+        maxId = Math.max(maxId, id);
+        size++;
+        return true;
+    }
+
+    /** Stores the members, as {@link #put} would one by one; returns how many were added. */
+    public synchronized int putAll(Collection<Member> members) {
+        int added = 0;
+        for (Member member : members) {
+            if (put(member)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /** The member with this id, as a new object, or {@code null}. */
+    public Member get(long id) {
+        long address = address(id);
+        return address == EMPTY ? null : decode(chunks, address);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Highest stored member id, or -1 if the store is empty. */
+    public long maxId() {
+        return maxId;
+    }
+
+    /** Direct memory held for records and the id index. */
+    public long offHeapBytes() {
+        return (long) chunks.length * chunkSize + table.capacity();
+    }
+
+    /**
+     * All members ordered by name, then id, as a list that decodes each member when it is accessed.
+     * It is a snapshot: members stored later are not in it.
+     */
+    public List<Member> byName() {
+        long[] sorted = sortedByName();
+        ByteBuffer[] view = chunks;
+        return new ByNameList(sorted, view);
+    }
+
+    private long[] sortedByName() {
+        synchronized (this) {
+            if (unsortedCount == 0) {
+                return byName;
+            }
+            ByteBuffer[] view = chunks;
+            long[] added = Arrays.copyOf(unsorted, unsortedCount);
+            sort(added, view);
+            long[] current = byName;
+            long[] merged = new long[current.length + added.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < current.length && j < added.length) {
+                merged[k++] =
+                        compareByName(view, current[i], added[j]) <= 0 ? current[i++] : added[j++];
+            }
+            while (i < current.length) {
+                merged[k++] = current[i++];
+            }
+            while (j < added.length) {
+                merged[k++] = added[j++];
+            }
+            byName = merged;
+            unsortedCount = 0;
+            if (unsorted.length > 1024) {
+                unsorted = new long[64];
+            }
+            return merged;
+        }
+    }
+
+    private long address(long id) {
+        ByteBuffer current = table;
+        int mask = current.capacity() / SLOT_SIZE - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            long key = (long) LONG.getAcquire(current, slot * SLOT_SIZE);
+            if (key == id) {
+                return current.getLong(slot * SLOT_SIZE + Long.BYTES);
+            }
+            if (key == EMPTY) {
+                return EMPTY;
+            }
+        }
+    }
+
+    private static void insert(ByteBuffer table, int mask, long id, long address) {
+        int slot = hash(id) & mask;
+        while ((long) LONG.get(table, slot * SLOT_SIZE) != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table.putLong(slot * SLOT_SIZE + Long.BYTES, address);
+        LONG.setRelease(table, slot * SLOT_SIZE, id);
+    }
+
+    private void resize() {
+        int slots = (tableMask + 1) * 2;
+        ByteBuffer grown = newTable(slots);
+        ByteBuffer current = table;
+        for (int slot = 0; slot <= tableMask; slot++) {
+            long key = current.getLong(slot * SLOT_SIZE);
+            if (key != EMPTY) {
+                insert(grown, slots - 1, key, current.getLong(slot * SLOT_SIZE + Long.BYTES));
+            }
+        }
+        tableMask = slots - 1;
+        // Lookups still holding the old table miss members added from now on and fall back.
+        table = grown;
+    }
+
+    private static ByteBuffer newTable(int slots) {
+        ByteBuffer table =
+                ByteBuffer.allocateDirect(slots * SLOT_SIZE + Long.BYTES)
+                        .alignedSlice(Long.BYTES)
+                        .limit(slots * SLOT_SIZE)
+                        .slice()
+                        .order(ByteOrder.nativeOrder());
+        for (int slot = 0; slot < slots; slot++) {
+            table.putLong(slot * SLOT_SIZE, EMPTY);
+        }
+        return table;
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Field of " + bytes.length + " bytes is too long");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static int putString(ByteBuffer chunk, int at, byte[] bytes) {
+        if (bytes == null) {
+            chunk.putShort(at, (short) -1);
+            return at + Short.BYTES;
+        }
+        chunk.putShort(at, (short) bytes.length);
+        chunk.put(at + Short.BYTES, bytes);
+        return at + Short.BYTES + bytes.length;
+    }
+
+    private static Member decode(ByteBuffer[] chunks, long address) {
+        ByteBuffer chunk = chunks[(int) (address >>> 32)];
+        int at = (int) address;
+        Member member = new Member();
+        member.setId(chunk.getLong(at));
+        at += NAME_OFFSET;
+        member.name = getString(chunk, at);
+        at += Short.BYTES + Math.max(0, chunk.getShort(at));
+        member.email = getString(chunk, at);
+        at += Short.BYTES + Math.max(0, chunk.getShort(at));
+        member.phoneNumber = getString(chunk, at);
+        return member;
+    }
+
+    private static String getString(ByteBuffer chunk, int at) {
+        int length = chunk.getShort(at);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        chunk.get(at + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Orders by name bytes (unsigned, {@code null} first), then id, without decoding. */
+    private static int compareByName(ByteBuffer[] chunks, long a, long b) {
+        ByteBuffer chunkA = chunks[(int) (a >>> 32)];
+        ByteBuffer chunkB = chunks[(int) (b >>> 32)];
+        int atA = (int) a;
+        int atB = (int) b;
+        int lengthA = chunkA.getShort(atA + NAME_OFFSET);
+        int lengthB = chunkB.getShort(atB + NAME_OFFSET);
+        int common = Math.min(lengthA, lengthB);
+        for (int i = 0; i < common; i++) {
+            int byteA = chunkA.get(atA + NAME_OFFSET + Short.BYTES + i) & 0xFF;
+            int byteB = chunkB.get(atB + NAME_OFFSET + Short.BYTES + i) & 0xFF;
+            if (byteA != byteB) {
+                return byteA - byteB;
+            }
+        }
+        if (lengthA != lengthB) {
+            return lengthA - lengthB;
+        }
+        return Long.compare(chunkA.getLong(atA), chunkB.getLong(atB));
+    }
+
+    /** Merge sort of record addresses by name; no boxing, so no garbage per element. */
+    private static void sort(long[] addresses, ByteBuffer[] chunks) {
+        long[] buffer = new long[addresses.length];
+        for (int width = 1; width < addresses.length; width *= 2) {
+            for (int low = 0; low < addresses.length; low += width * 2) {
+                int mid = Math.min(low + width, addresses.length);
+                int high = Math.min(low + width * 2, addresses.length);
+                int i = low;
+                int j = mid;
+                int k = low;
+                while (i < mid && j < high) {
+                    buffer[k++] =
+                            compareByName(chunks, addresses[i], addresses[j]) <= 0
+                                    ? addresses[i++]
+                                    : addresses[j++];
+                }
+                while (i < mid) {
+                    buffer[k++] = addresses[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = addresses[j++];
+                }
+            }
+            System.arraycopy(buffer, 0, addresses, 0, addresses.length);
+        }
+    }
+
+    private static final class ByNameList extends AbstractList<Member> implements RandomAccess {
+
+        private final long[] addresses;
+        private final ByteBuffer[] chunks;
+
+        ByNameList(long[] addresses, ByteBuffer[] chunks) {
+            this.addresses = addresses;
+            this.chunks = chunks;
+        }
+
+        @Override
+        public Member get(int index) {
+            return decode(chunks, addresses[index]);
+        }
+
+        @Override
+        public int size() {
+            return addresses.length;
+        }
+    }
+}
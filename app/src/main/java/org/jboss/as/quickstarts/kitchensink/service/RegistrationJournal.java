@@ -0,0 +1,162 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.util.JournalReader;
+import org.jboss.as.quickstarts.kitchensink.util.MappedJournal;
+import org.jboss.logging.Logger;
+
+/**
+ * Appends every registered member, as JSON, to a local {@link MappedJournal} that downstream
+ * systems tail with a {@link JournalReader} instead of polling the REST API. The journal is opt-in
+ * ({@code kitchensink.journal.enabled}).
+ *
+ * <p>With {@code kitchensink.journal.sync} a registration returns only once its record is on disk;
+ * concurrent registrations share the fsync. The member is already in MongoDB by then, so a journal
+ * failure is logged and counted in {@code members.journal.failed} rather than failing the
+ * registration.
+ */
+@ApplicationScoped
+public class RegistrationJournal {
+
+    private static final Logger LOG = Logger.getLogger(RegistrationJournal.class);
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject MeterRegistry registry;
+
+    @ConfigProperty(name = "kitchensink.journal.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "kitchensink.journal.directory", defaultValue = "data/journal")
+    String directory;
+
+    @ConfigProperty(name = "kitchensink.journal.segment-size", defaultValue = "64M")
+    MemorySize segmentSize;
+
+    @ConfigProperty(name = "kitchensink.journal.sync", defaultValue = "false")
+    boolean sync;
+
+    @ConfigProperty(name = "kitchensink.journal.flush-interval", defaultValue = "1s")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "kitchensink.journal.retention.size", defaultValue = "1G")
+    MemorySize retentionSize;
+
+    @ConfigProperty(name = "kitchensink.journal.retention.age", defaultValue = "7d")
+    Duration retentionAge;
+
+    private volatile MappedJournal journal;
+    private Counter appended;
+    private Counter failed;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (!enabled) {
+            return;
+        }
+        appended =
+                Counter.builder("members.journal.appended")
+                        .description("Registered members appended to the journal")
+                        .register(registry);
+        failed =
+                Counter.builder("members.journal.failed")
+                        .description("Registered members that could not be journaled")
+                        .register(registry);
+        DistributionSummary batchSizes =
+                DistributionSummary.builder("members.journal.sync.batch.size")
+                        .description("Journal records made durable per fsync")
+                        .register(registry);
+        try {
+            journal =
+                    MappedJournal.open(
+                            Path.of(directory),
+                            Math.toIntExact(segmentSize.asLongValue()),
+                            flushInterval,
+                            new MappedJournal.Retention(retentionSize.asLongValue(), retentionAge),
+                            batchSizes::record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the registration journal", e);
+        }
+        LOG.infof("Registration journal open in %s at offset %d", directory, journal.end());
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        MappedJournal current = journal;
+        if (current != null) {
+            journal = null;
+            current.close();
+        }
+    }
+
+    void onMemberRegistered(@Observes Member member) {
+        MappedJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            long offset = current.append(objectMapper.writeValueAsBytes(member));
+            if (sync) {
+                current.sync(offset);
+            }
+            appended.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            LOG.error("Failed to journal registration of member " + member.getId(), e);
+        }
+    }
+
+    @Scheduled(
+            every = "${kitchensink.journal.retention.check-interval}",
+            delayed = "${kitchensink.journal.retention.check-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void enforceRetention() {
+        MappedJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            int deleted = current.enforceRetention();
+            if (deleted > 0) {
+                LOG.infof("Deleted %d journal segments past retention", deleted);
+            }
+        } catch (IOException e) {
+            LOG.error("Failed to apply journal retention in " + directory, e);
+        }
+    }
+
+    /** A reader over this application's journal, for consumers in the same process. */
+    public JournalReader reader() {
+        return new JournalReader(Path.of(directory));
+    }
+}
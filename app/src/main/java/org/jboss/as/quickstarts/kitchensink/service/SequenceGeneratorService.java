@@ -22,12 +22,15 @@ import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
 import io.quarkus.arc.profile.UnlessBuildProfile;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.bson.Document;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.jboss.as.quickstarts.kitchensink.util.RequestIds;
 
 @UnlessBuildProfile("test")
 @ApplicationScoped
@@ -46,16 +49,41 @@ public class SequenceGeneratorService {
     }
 
     public Long getNextSequence(String sequenceName) {
+        try (MongoOperation.Scope scope = MongoOperation.start("getNextSequence")) {
+            return incrementSequence(sequenceName, 1L);
+        }
+    }
+
+    /**
+     * Reserves {@code size} consecutive values of the sequence with a single round trip, for bulk
+     * inserts.
+     *
+     * @return the first value of the reserved block; the block ends at {@code first + size - 1}
+     */
+    public long reserveBlock(String sequenceName, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + size);
+        }
+        try (MongoOperation.Scope scope = MongoOperation.start("reserveBlock")) {
+            return incrementSequence(sequenceName, size) - size + 1;
+        }
+    }
+
+    private Long incrementSequence(String sequenceName, long increment) {
         MongoCollection<Document> countersCollection =
                 getDatabase().getCollection(COUNTERS_COLLECTION_NAME);
 
+        FindOneAndUpdateOptions options =
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+        String comment = RequestIds.current();
+        if (comment != null) {
+            options.comment(comment);
+        }
         Document sequenceDocument =
                 countersCollection.findOneAndUpdate(
                         Filters.eq("_id", sequenceName),
-                        Updates.inc(SEQUENCE_FIELD_NAME, 1L),
-                        new FindOneAndUpdateOptions()
-                                .upsert(true)
-                                .returnDocument(ReturnDocument.AFTER));
+                        Updates.inc(SEQUENCE_FIELD_NAME, increment),
+                        options);
         // $inc operator will create the field and set it to the increment value if the field does
         // not exist on an existing document.
         // If upsert creates the document, $inc will create the field with the incremented value
@@ -75,13 +103,31 @@ public class SequenceGeneratorService {
         }
     }
 
+    /**
+     * Raises the sequence to {@code value} if it is lower, so that the next value is above it.
+     * Values already handed out are unaffected, and a sequence that is already past it stays put.
+     */
+    public void advanceTo(String sequenceName, long value) {
+        try (MongoOperation.Scope scope = MongoOperation.start("advanceSequence")) {
+            getDatabase()
+                    .getCollection(COUNTERS_COLLECTION_NAME)
+                    .updateOne(
+                            Filters.eq("_id", sequenceName),
+                            Updates.max(SEQUENCE_FIELD_NAME, value),
+                            new UpdateOptions().upsert(true));
+        }
+    }
+
     public void initializeSequence(String sequenceName, long initialValue) {
         MongoCollection<Document> countersCollection =
                 getDatabase().getCollection(COUNTERS_COLLECTION_NAME);
-        Document counter = countersCollection.find(Filters.eq("_id", sequenceName)).first();
-        if (counter == null) {
-            countersCollection.insertOne(
-                    new Document("_id", sequenceName).append(SEQUENCE_FIELD_NAME, initialValue));
+        try (MongoOperation.Scope scope = MongoOperation.start("initializeSequence")) {
+            Document counter = countersCollection.find(Filters.eq("_id", sequenceName)).first();
+            if (counter == null) {
+                countersCollection.insertOne(
+                        new Document("_id", sequenceName)
+                                .append(SEQUENCE_FIELD_NAME, initialValue));
+            }
         }
     }
 }
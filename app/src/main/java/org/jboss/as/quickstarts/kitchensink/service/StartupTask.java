@@ -0,0 +1,34 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+/**
+ * A unit of startup work that must finish before the application reports itself ready.
+ *
+ * <p>Implementations are CDI beans; {@link StartupTracker} runs them off the startup thread, one
+ * after another in ascending {@link #order()}, and times each of them.
+ */
+public interface StartupTask {
+
+    /** Name used for logging and the phase timing metrics. */
+    String name();
+
+    /** Position in the startup sequence; lower values run first. */
+    int order();
+
+    void run() throws Exception;
+}
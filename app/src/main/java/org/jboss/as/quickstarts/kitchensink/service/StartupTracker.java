@@ -0,0 +1,191 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Runs the {@link StartupTask}s asynchronously once the application has started, so slow MongoDB
+ * work does not delay the HTTP server, and records how long each startup phase took.
+ *
+ * <p>Phase durations are exported as the {@code startup.phase.duration} gauge (tagged by phase) and
+ * the time from JVM start until all tasks finished as {@code startup.ready.time}. The readiness
+ * check reports the application ready only once {@link #isComplete()}.
+ *
+ * <p>Later tasks build on earlier ones, so a task that fails, e.g. on a timeout while MongoDB is
+ * slow, is retried with exponential backoff before the next one runs. Meanwhile it is listed in
+ * {@link #failedTasks()} and the application stays unready.
+ */
+@ApplicationScoped
+public class StartupTracker {
+
+    private static final Logger LOG = Logger.getLogger(StartupTracker.class);
+
+    @Inject Instance<StartupTask> tasks;
+
+    @Inject MeterRegistry registry;
+
+    @ConfigProperty(name = "kitchensink.startup.retry.initial-backoff", defaultValue = "1s")
+    Duration initialBackoff;
+
+    @ConfigProperty(name = "kitchensink.startup.retry.max-backoff", defaultValue = "1m")
+    Duration maxBackoff;
+
+    private final Map<String, AtomicLong> phaseNanos =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+    private final List<String> failedTasks = new CopyOnWriteArrayList<>();
+    private final AtomicLong readyMillis = new AtomicLong(-1L);
+    private volatile boolean complete;
+
+    void onStart(@Observes StartupEvent ev) {
+        TimeGauge.builder("startup.ready.time", readyMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from JVM start until all startup tasks finished")
+                .register(registry);
+        Infrastructure.getDefaultWorkerPool().execute(this::runTasks);
+    }
+
+    void runTasks() {
+        List<StartupTask> ordered =
+                tasks.stream().sorted(Comparator.comparingInt(StartupTask::order)).toList();
+        for (StartupTask task : ordered) {
+            if (!runUntilSuccessful(task)) {
+                return;
+            }
+        }
+        readyMillis.set(ManagementFactory.getRuntimeMXBean().getUptime());
+        complete = true;
+        LOG.infof(
+                "Startup tasks finished %d ms after JVM start. Phases (ms): %s",
+                readyMillis.get(), phaseDurationsMillis());
+    }
+
+    /** Runs the task until it succeeds; {@code false} if interrupted while waiting to retry it. */
+    boolean runUntilSuccessful(StartupTask task) {
+        long backoffMillis = initialBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                time(
+                        task.name(),
+                        () -> {
+                            try {
+                                task.run();
+                            } catch (RuntimeException e) {
+                                throw e;
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                            return null;
+                        });
+                failedTasks.remove(task.name());
+                return true;
+            } catch (RuntimeException e) {
+                if (!failedTasks.contains(task.name())) {
+                    failedTasks.add(task.name());
+                }
+                LOG.errorf(
+                        e,
+                        "Startup task '%s' failed (attempt %d), retrying in %d ms",
+                        task.name(),
+                        attempt,
+                        backoffMillis);
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, maxBackoff.toMillis());
+        }
+    }
+
+    /** Runs a named startup phase, recording its duration even if it fails. */
+    public <T> T time(String phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            recordPhase(phase, System.nanoTime() - start);
+        }
+    }
+
+    public void time(String phase, Runnable work) {
+        time(
+                phase,
+                () -> {
+                    work.run();
+                    return null;
+                });
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /** Tasks that failed on their last attempt and are waiting to be retried. */
+    public List<String> failedTasks() {
+        return List.copyOf(failedTasks);
+    }
+
+    /** Durations of the phases recorded so far, in the order they first finished. */
+    public Map<String, Long> phaseDurationsMillis() {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        synchronized (phaseNanos) {
+            phaseNanos.forEach((phase, nanos) -> millis.put(phase, nanos.get() / 1_000_000));
+        }
+        return millis;
+    }
+
+    private void recordPhase(String phase, long nanos) {
+        AtomicLong holder =
+                phaseNanos.computeIfAbsent(
+                        phase,
+                        name -> {
+                            AtomicLong value = new AtomicLong();
+                            TimeGauge.builder(
+                                            "startup.phase.duration",
+                                            value,
+                                            TimeUnit.NANOSECONDS,
+                                            AtomicLong::get)
+                                    .tag("phase", name)
+                                    .description("Duration of a startup phase")
+                                    .register(registry);
+                            return value;
+                        });
+        holder.set(nanos);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+
+/**
+ * Generates deterministic synthetic members for load and performance environments.
+ *
+ * <p>The member for a given index is always the same, and every index yields a unique name and
+ * email that satisfy the {@link Member} constraints: the name is spelled with letters only (the
+ * index in base 26), the email is {@code member<index>@seed.kitchensink.example} and the phone
+ * number is ten digits.
+ */
+public final class SyntheticMemberGenerator {
+
+    /** Indexes below this bound produce distinct seven-letter names and ten-digit phones. */
+    public static final long MAX_INDEX = 8_031_810_176L; // 26^7
+
+    private static final int NAME_LETTERS = 7;
+    private static final long PHONE_BASE = 1_000_000_000L;
+
+    private SyntheticMemberGenerator() {}
+
+    public static Member create(long index) {
+        if (index < 0 || index >= MAX_INDEX) {
+            throw new IllegalArgumentException("Synthetic member index out of range: " + index);
+        }
+        return new Member(
+                name(index), "member" + index + "@seed.kitchensink.example", phone(index));
+    }
+
+    static String name(long index) {
+        char[] letters = new char[NAME_LETTERS];
+        long remaining = index;
+        for (int i = NAME_LETTERS - 1; i >= 0; i--) {
+            letters[i] = (char) ('a' + remaining % 26);
+            remaining /= 26;
+        }
+        letters[0] = Character.toUpperCase(letters[0]);
+        return "Synthetic " + new String(letters);
+    }
+
+    static String phone(long index) {
+        return Long.toString(PHONE_BASE + index % (9 * PHONE_BASE));
+    }
+}
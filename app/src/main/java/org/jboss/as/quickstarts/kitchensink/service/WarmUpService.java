@@ -0,0 +1,334 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Projections;
+import io.quarkus.arc.profile.UnlessBuildProfile;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Validator;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.model.MemberValidator;
+import org.jboss.as.quickstarts.kitchensink.util.WarmUpTraffic;
+import org.jboss.logging.Logger;
+
+/**
+ * Warms the application up before it reports ready, so that the first real requests after a deploy
+ * do not pay for cold connections, caches and code.
+ *
+ * <p>It opens the MongoDB pools to their minimum size ({@code quarkus.mongodb.min-pool-size}), then
+ * sends synthetic requests through the HTTP server to the member API and UI: lookups of the first
+ * members (loading them into the member cache), member lists (filling the pre-serialized member
+ * JSON cache), counts and page renders. Every endpoint's first and typical warm latency are logged,
+ * which shows the cost taken off the first real requests.
+ *
+ * <p>The requests are marked as {@link WarmUpTraffic}: they are not rate limited and are tagged
+ * {@code traffic=warm-up} in the HTTP server metrics. Registrations are not sent through the HTTP
+ * server, because the registration endpoints count every attempt in their business metrics; instead
+ * member JSON is parsed and validated in-process, the way invalid registrations are.
+ */
+@UnlessBuildProfile("test")
+@ApplicationScoped
+public class WarmUpService implements StartupTask {
+
+    private static final Logger LOG = Logger.getLogger(WarmUpService.class);
+
+    @Inject MongoClient mongoClient;
+
+    @Inject MongoPoolMonitor poolMonitor;
+
+    @Inject MemberCache memberCache;
+
+    @Inject MemberRepository memberRepository;
+
+    @Inject StartupTracker startupTracker;
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject Validator validator;
+
+    @ConfigProperty(name = "kitchensink.warm-up.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /** Requests per endpoint; the heavier list and UI pages get a tenth of them. */
+    @ConfigProperty(name = "kitchensink.warm-up.requests", defaultValue = "500")
+    int requests;
+
+    @ConfigProperty(name = "kitchensink.warm-up.concurrency", defaultValue = "4")
+    int concurrency;
+
+    @ConfigProperty(name = "kitchensink.warm-up.hot-members", defaultValue = "100")
+    int hotMembers;
+
+    @ConfigProperty(name = "kitchensink.warm-up.pool-timeout", defaultValue = "10s")
+    Duration poolTimeout;
+
+    @ConfigProperty(name = "quarkus.http.port")
+    int httpPort;
+
+    @Override
+    public String name() {
+        return "warm-up";
+    }
+
+    /** Runs last, once the data and caches it exercises are in place. */
+    @Override
+    public int order() {
+        return 1000;
+    }
+
+    @Override
+    public void run() throws Exception {
+        if (!enabled) {
+            return;
+        }
+        startupTracker.time("warm-up.pool", this::fillPools);
+        List<Long> ids = startupTracker.time("warm-up.members", this::hotMemberIds);
+        if (ids.isEmpty()) {
+            ids = List.of(0L);
+        }
+        List<Long> hotIds = ids;
+        String base = "http://localhost:" + httpPort + "/rest/app";
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            startupTracker.time(
+                    "warm-up.requests",
+                    () -> {
+                        exercise(
+                                client,
+                                executor,
+                                "GET /api/members/{id}",
+                                requests,
+                                i -> get(base + "/api/members/" + hotIds.get(i % hotIds.size())));
+                        exercise(
+                                client,
+                                executor,
+                                "GET /api/members/count",
+                                requests,
+                                i -> get(base + "/api/members/count"));
+                        exercise(
+                                executor,
+                                "registration validation (in-process)",
+                                requests,
+                                i -> validate(invalidMember(i)));
+                        exercise(
+                                client,
+                                executor,
+                                "GET /api/members",
+                                requests / 10,
+                                i -> get(base + "/api/members"));
+                        exercise(
+                                client,
+                                executor,
+                                "GET /ui/members/{id}",
+                                requests,
+                                i -> get(base + "/ui/members/" + hotIds.get(i % hotIds.size())));
+                        exercise(
+                                client, executor, "GET /ui", requests / 10, i -> get(base + "/ui"));
+                    });
+        }
+    }
+
+    /** Pings MongoDB concurrently until every pool holds its minimum of connections. */
+    private void fillPools() {
+        long deadline = System.nanoTime() + poolTimeout.toNanos();
+        int before = poolMonitor.openConnections();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                MongoOperation.Scope scope = MongoOperation.start("warmUp")) {
+            do {
+                List<Future<?>> pings = new ArrayList<>();
+                for (int i = 0; i < Math.max(concurrency, 8); i++) {
+                    pings.add(
+                            executor.submit(
+                                    () ->
+                                            mongoClient
+                                                    .getDatabase("admin")
+                                                    .runCommand(new Document("ping", 1))));
+                }
+                for (Future<?> ping : pings) {
+                    ping.get();
+                }
+                if (poolMonitor.atMinimumSize()) {
+                    break;
+                }
+                // The driver opens pools towards their minimum size in the background, too.
+                Thread.sleep(50);
+            } while (System.nanoTime() < deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.warn("Failed to open the MongoDB connection pools", e);
+        }
+        LOG.infof(
+                "Warm-up: MongoDB connections open: %d (was %d), pools at minimum size: %s",
+                poolMonitor.openConnections(), before, poolMonitor.atMinimumSize());
+    }
+
+    private List<Long> hotMemberIds() {
+        List<Long> ids = new ArrayList<>(hotMembers);
+        if (memberCache.isEnabled() && memberCache.size() > 0) {
+            for (Member member : memberCache.members()) {
+                if (ids.size() >= hotMembers) {
+                    break;
+                }
+                ids.add(member.getId());
+            }
+            return ids;
+        }
+        try (MongoOperation.Scope scope = MongoOperation.start("warmUp");
+                MongoCursor<Member> cursor =
+                        memberRepository
+                                .readCollection()
+                                .find()
+                                .projection(Projections.include("_id"))
+                                .limit(hotMembers)
+                                .iterator()) {
+            cursor.forEachRemaining(member -> ids.add(member.getId()));
+        }
+        return ids;
+    }
+
+    /** Sends {@code count} HTTP requests, counting 5xx and 429 responses as failures. */
+    private void exercise(
+            HttpClient client,
+            ExecutorService executor,
+            String endpoint,
+            int count,
+            IntFunction<HttpRequest> request) {
+        exercise(
+                executor,
+                endpoint,
+                count,
+                i -> {
+                    try {
+                        int status =
+                                client.send(
+                                                request.apply(i),
+                                                HttpResponse.BodyHandlers.discarding())
+                                        .statusCode();
+                        return status < 500 && status != 429;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    } catch (Exception e) {
+                        return false;
+                    }
+                });
+    }
+
+    /**
+     * Runs {@code call} {@code count} times over {@code concurrency} threads and logs the latency
+     * of the first call against the median of the last quarter.
+     */
+    private void exercise(ExecutorService executor, String endpoint, int count, IntPredicate call) {
+        if (count < 1) {
+            return;
+        }
+        long[] nanos = new long[count];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < Math.max(1, concurrency); t++) {
+            workers.add(
+                    executor.submit(
+                            () -> {
+                                for (int i = next.getAndIncrement();
+                                        i < count;
+                                        i = next.getAndIncrement()) {
+                                    long start = System.nanoTime();
+                                    if (!call.test(i)) {
+                                        failures.incrementAndGet();
+                                    }
+                                    nanos[i] = System.nanoTime() - start;
+                                }
+                                return null;
+                            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (Exception e) {
+                LOG.warn("Warm-up of " + endpoint + " failed", e);
+            }
+        }
+        long[] warm = Arrays.copyOfRange(nanos, count - Math.max(1, count / 4), count);
+        Arrays.sort(warm);
+        LOG.infof(
+                "Warm-up: %s x%d: first %.1f ms, warm median %.2f ms, %d failed",
+                endpoint, count, nanos[0] / 1e6, warm[warm.length / 2] / 1e6, failures.get());
+    }
+
+    private HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header(WarmUpTraffic.HEADER, WarmUpTraffic.token())
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    /**
+     * Parses and validates a registration like the registration endpoints do: the fast-path
+     * validator, then Hibernate Validator for the violations. Succeeds if the member is rejected.
+     */
+    private boolean validate(String json) {
+        try {
+            Member member = objectMapper.readValue(json, Member.class);
+            return !MemberValidator.isValid(member) && !validator.validate(member).isEmpty();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /** A registration that fails bean validation, alternating which field is invalid. */
+    private static String invalidMember(int i) {
+        return switch (i % 3) {
+            case 0 -> "{\"name\":\"Warm Up "
+                    + i
+                    + "\",\"email\":\"warm.up@example.com\","
+                    + "\"phoneNumber\":\"2125551212\"}";
+            case 1 -> "{\"name\":\"Warm Up\",\"email\":\"not-an-email-"
+                    + i
+                    + "\","
+                    + "\"phoneNumber\":\"2125551212\"}";
+            default -> "{\"name\":\"Warm Up\",\"email\":\"warm.up@example.com\","
+                    + "\"phoneNumber\":\""
+                    + i
+                    + "\"}";
+        };
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to observed latency, in the style of a gradient limiter.
+ *
+ * <p>Two moving averages of the request latency are kept: a short one that follows the current
+ * conditions and a long one that stands for the latency the system delivers when it is not
+ * overloaded. Their ratio (the gradient) shrinks the limit as soon as latency climbs above the
+ * long-term level, and while latency stays flat the limit grows by its square root, probing for
+ * more capacity. Requests over the limit are rejected immediately rather than queued.
+ *
+ * <p>Samples taken while fewer than half of the permits were in use say nothing about the capacity
+ * and are ignored, as are the latencies of requests released with {@link Permit#ignore()}.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 500;
+
+    /** Latency may rise this much above the long-term average before the limit shrinks. */
+    private static final double TOLERANCE = 1.5;
+
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private double estimatedLimit;
+    private volatile int limit;
+    private double shortRtt;
+    private double longRtt;
+
+    /** A granted request; release it exactly once. */
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /** The request completed normally; its latency is a valid sample. */
+        public void success() {
+            release(false, false);
+        }
+
+        /** The request failed or timed out in a way that suggests overload. */
+        public void dropped() {
+            release(true, false);
+        }
+
+        /** The request ended without telling anything about the load, e.g. it was invalid. */
+        public void ignore() {
+            release(false, true);
+        }
+
+        private void release(boolean dropped, boolean ignore) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            if (!ignore) {
+                onSample(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+            }
+        }
+    }
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException(
+                    "Invalid concurrency limit bounds: " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /** Returns a permit, or {@code null} if the limit is reached. */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /** Requests rejected since the limiter was created. */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        double rtt = Math.max(1L, rttNanos);
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        }
+        shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+        longRtt += (rtt - longRtt) / LONG_WINDOW;
+        if (longRtt > 2 * shortRtt) {
+            // Latency is back to normal after an overload; let the baseline follow it quickly.
+            longRtt *= 0.95;
+        }
+        if (!dropped && inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient =
+                dropped ? 0.5 : Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+}
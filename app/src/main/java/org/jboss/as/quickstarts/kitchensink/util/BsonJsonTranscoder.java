@@ -0,0 +1,195 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import org.bson.BsonSerializationException;
+import org.bson.ByteBuf;
+import org.bson.RawBsonDocument;
+import org.bson.types.Decimal128;
+
+/**
+ * Writes raw BSON documents straight to a Jackson {@link JsonGenerator}, without decoding them into
+ * entities or {@code BsonValue}s first.
+ *
+ * <p>The document bytes are walked in place: strings are handed to the generator as the UTF-8 bytes
+ * they already are, and field names are looked up in a small table of the names seen so far, so a
+ * document of known fields is transcoded without allocating per field. Top-level fields can be
+ * renamed (e.g. {@code _id} to {@code id}). Numbers, strings, booleans, nulls, documents and arrays
+ * map to their JSON counterparts; object ids become hex strings and dates epoch milliseconds.
+ *
+ * <p>Strings are copied as UTF-8 bytes, so the generator has to write to a byte stream, not a
+ * {@code Writer}.
+ */
+public final class BsonJsonTranscoder {
+
+    private static final int MAX_NAMES = 64;
+
+    private final Map<String, String> topLevelRenames;
+    private volatile Name[] names = new Name[0];
+
+    /** A field name as BSON bytes and as the string the generator writes. */
+    private record Name(byte[] bson, SerializedString topLevel, SerializedString nested) {}
+
+    /**
+     * @param topLevelRenames top-level BSON field names and the JSON names to write instead
+     */
+    public BsonJsonTranscoder(Map<String, String> topLevelRenames) {
+        this.topLevelRenames = Map.copyOf(topLevelRenames);
+    }
+
+    public void write(RawBsonDocument document, JsonGenerator generator) throws IOException {
+        ByteBuf buffer = document.getByteBuffer();
+        byte[] bytes = buffer.array();
+        int start = buffer.position();
+        int end = writeDocument(bytes, start, generator, false, true);
+        if (end != buffer.limit()) {
+            throw new BsonSerializationException("Trailing bytes after BSON document");
+        }
+    }
+
+    /** Writes the document or array at {@code offset}; returns the offset just past it. */
+    private int writeDocument(
+            byte[] bytes, int offset, JsonGenerator generator, boolean array, boolean topLevel)
+            throws IOException {
+        int length = readInt(bytes, offset);
+        int end = offset + length;
+        int pos = offset + 4;
+        if (array) {
+            generator.writeStartArray();
+        } else {
+            generator.writeStartObject();
+        }
+        while (true) {
+            byte type = bytes[pos++];
+            if (type == 0) {
+                break;
+            }
+            int nameEnd = pos;
+            while (bytes[nameEnd] != 0) {
+                nameEnd++;
+            }
+            if (!array) {
+                generator.writeFieldName(name(bytes, pos, nameEnd, topLevel));
+            }
+            pos = writeValue(type, bytes, nameEnd + 1, generator);
+        }
+        if (array) {
+            generator.writeEndArray();
+        } else {
+            generator.writeEndObject();
+        }
+        if (pos != end) {
+            throw new BsonSerializationException("Malformed BSON document length");
+        }
+        return end;
+    }
+
+    private int writeValue(byte type, byte[] bytes, int pos, JsonGenerator generator)
+            throws IOException {
+        switch (type) {
+            case 0x01 -> {
+                generator.writeNumber(Double.longBitsToDouble(readLong(bytes, pos)));
+                return pos + 8;
+            }
+            case 0x02 -> {
+                int size = readInt(bytes, pos);
+                generator.writeUTF8String(bytes, pos + 4, size - 1);
+                return pos + 4 + size;
+            }
+            case 0x03, 0x04 -> {
+                return writeDocument(bytes, pos, generator, type == 0x04, false);
+            }
+            case 0x07 -> {
+                generator.writeString(HexFormat.of().formatHex(bytes, pos, pos + 12));
+                return pos + 12;
+            }
+            case 0x08 -> {
+                generator.writeBoolean(bytes[pos] != 0);
+                return pos + 1;
+            }
+            case 0x09 -> {
+                generator.writeNumber(readLong(bytes, pos));
+                return pos + 8;
+            }
+            case 0x0A -> {
+                generator.writeNull();
+                return pos;
+            }
+            case 0x10 -> {
+                generator.writeNumber(readInt(bytes, pos));
+                return pos + 4;
+            }
+            case 0x12 -> {
+                generator.writeNumber(readLong(bytes, pos));
+                return pos + 8;
+            }
+            case 0x13 -> {
+                Decimal128 decimal =
+                        Decimal128.fromIEEE754BIDEncoding(
+                                readLong(bytes, pos + 8), readLong(bytes, pos));
+                if (decimal.isNaN() || decimal.isInfinite()) {
+                    generator.writeString(decimal.toString());
+                } else {
+                    generator.writeNumber(decimal.bigDecimalValue());
+                }
+                return pos + 16;
+            }
+            default -> throw new BsonSerializationException(
+                    String.format("Unsupported BSON type 0x%02x for JSON passthrough", type));
+        }
+    }
+
+    private SerializedString name(byte[] bytes, int from, int to, boolean topLevel) {
+        Name[] known = names;
+        for (Name name : known) {
+            if (Arrays.equals(name.bson(), 0, name.bson().length, bytes, from, to)) {
+                return topLevel ? name.topLevel() : name.nested();
+            }
+        }
+        String value = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        Name name =
+                new Name(
+                        Arrays.copyOfRange(bytes, from, to),
+                        new SerializedString(topLevelRenames.getOrDefault(value, value)),
+                        new SerializedString(value));
+        if (known.length < MAX_NAMES) {
+            // Racing writers may drop each other's additions; the name is simply learned again.
+            Name[] grown = Arrays.copyOf(known, known.length + 1);
+            grown[known.length] = name;
+            names = grown;
+        }
+        return topLevel ? name.topLevel() : name.nested();
+    }
+
+    private static int readInt(byte[] bytes, int pos) {
+        return (bytes[pos] & 0xFF)
+                | (bytes[pos + 1] & 0xFF) << 8
+                | (bytes[pos + 2] & 0xFF) << 16
+                | (bytes[pos + 3] & 0xFF) << 24;
+    }
+
+    private static long readLong(byte[] bytes, int pos) {
+        return (readInt(bytes, pos) & 0xFFFFFFFFL) | ((long) readInt(bytes, pos + 4)) << 32;
+    }
+}
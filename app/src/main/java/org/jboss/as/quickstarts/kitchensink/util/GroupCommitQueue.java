@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Group commit: items submitted concurrently are collected into batches and handed to a {@link
+ * BatchWriter} by a single writer thread, so many callers share one round trip.
+ *
+ * <p>A batch is written as soon as it holds {@code maxBatch} items or {@code maxWait} has passed
+ * since its first item arrived, whichever comes first. Every caller gets the outcome of its own
+ * item: writers report per-item failures by index, and a failure of the whole batch fails all of
+ * its items.
+ */
+public final class GroupCommitQueue<T> implements AutoCloseable {
+
+    /** Writes one batch of items. */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+
+        /**
+         * @return failures of individual items, keyed by their index in {@code batch}; items not in
+         *     the map were written
+         * @throws Exception if the batch as a whole failed
+         */
+        Map<Integer, ? extends Exception> write(List<T> batch) throws Exception;
+    }
+
+    private record Pending<T>(T item, CompletableFuture<Void> result) {}
+
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BatchWriter<T> writer;
+    private final IntConsumer batchSizes;
+    private final BlockingQueue<Pending<T>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param batchSizes notified of the size of every batch written, e.g. to record a metric
+     */
+    public GroupCommitQueue(
+            String name,
+            int maxBatch,
+            Duration maxWait,
+            BatchWriter<T> writer,
+            IntConsumer batchSizes) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be at least 1: " + maxBatch);
+        }
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = Math.max(0L, maxWait.toNanos());
+        this.writer = writer;
+        this.batchSizes = batchSizes;
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Queues an item; the returned future completes once its batch has been written. */
+    public CompletableFuture<Void> submit(T item) {
+        if (closed) {
+            throw new IllegalStateException("Group commit queue is closed");
+        }
+        Pending<T> pending = new Pending<>(item, new CompletableFuture<>());
+        queue.add(pending);
+        if (closed && queue.remove(pending)) {
+            // Lost the race with close(), which may already have drained the queue.
+            pending.result()
+                    .completeExceptionally(
+                            new IllegalStateException("Group commit queue is closed"));
+        }
+        return pending.result();
+    }
+
+    /** Queues an item and waits until it is written, rethrowing its failure. */
+    public void write(T item) throws Exception {
+        try {
+            submit(item).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /** Number of items waiting for the next batch. */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * Stops the writer thread; items not yet written fail with an {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failAll(drain(), new IllegalStateException("Group commit queue is closed"));
+    }
+
+    private void run() {
+        List<Pending<T>> batch = new ArrayList<>(maxBatch);
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                queue.drainTo(batch, maxBatch - batch.size());
+                while (batch.size() < maxBatch) {
+                    Pending<T> next =
+                            queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                failAll(batch, new IllegalStateException("Group commit queue is closed"));
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Pending<T>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Pending<T> pending : batch) {
+            items.add(pending.item());
+        }
+        batchSizes.accept(items.size());
+        Map<Integer, ? extends Exception> failures;
+        try {
+            failures = writer.write(items);
+        } catch (Exception | Error e) {
+            failAll(batch, e);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Exception failure = failures.get(i);
+            if (failure != null) {
+                batch.get(i).result().completeExceptionally(failure);
+            } else {
+                batch.get(i).result().complete(null);
+            }
+        }
+    }
+
+    private List<Pending<T>> drain() {
+        List<Pending<T>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        return remaining;
+    }
+
+    private static <T> void failAll(List<Pending<T>> batch, Throwable failure) {
+        for (Pending<T> pending : batch) {
+            pending.result().completeExceptionally(failure);
+        }
+    }
+}
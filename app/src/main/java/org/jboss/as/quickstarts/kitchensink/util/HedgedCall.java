@@ -0,0 +1,114 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs a call and, if it has not answered within a delay, a second (hedge) call to another replica,
+ * returning whichever answers first. Set the delay around the call's usual p95 latency, so that
+ * only slow calls pay for a second one.
+ *
+ * <p>A hedge answer can be rejected (e.g. a "not found" from a replica that may be lagging); the
+ * first call's answer is then awaited instead. Only when both calls fail does the caller see a
+ * failure, that of the first call.
+ */
+public final class HedgedCall {
+
+    /** The answer, and whether the hedge was sent and whether it won. */
+    public record Result<V>(V value, boolean hedged, boolean hedgeWon) {}
+
+    private final Executor executor;
+    private final long delayNanos;
+
+    public HedgedCall(Executor executor, Duration delay) {
+        this.executor = executor;
+        this.delayNanos = delay.toNanos();
+    }
+
+    public <V> Result<V> call(Callable<V> first, Callable<V> hedge, Predicate<V> acceptHedge)
+            throws Exception {
+        CompletableFuture<Result<V>> answer = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        CompletableFuture<Void> firstDone = new CompletableFuture<>();
+        executor.execute(
+                () -> {
+                    try {
+                        answer.complete(new Result<>(first.call(), false, false));
+                    } catch (Throwable e) {
+                        firstDone.completeExceptionally(e);
+                        if (pending.decrementAndGet() == 0) {
+                            answer.completeExceptionally(e);
+                        }
+                    }
+                    firstDone.complete(null);
+                });
+        try {
+            return answer.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Slow: send the hedge.
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+        executor.execute(
+                () -> {
+                    try {
+                        V value = hedge.call();
+                        if (acceptHedge.test(value)) {
+                            answer.complete(new Result<>(value, true, true));
+                            return;
+                        }
+                    } catch (Throwable e) {
+                        // The first call may still answer.
+                    }
+                    if (pending.decrementAndGet() == 0) {
+                        answer.completeExceptionally(firstFailure(firstDone));
+                    }
+                });
+        try {
+            Result<V> result = answer.get();
+            return result.hedged() ? result : new Result<>(result.value(), true, false);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static Throwable firstFailure(CompletableFuture<Void> firstDone) {
+        try {
+            firstDone.getNow(null);
+            return new IllegalStateException("Hedged call failed");
+        } catch (Exception e) {
+            return e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return cause instanceof Exception exception ? exception : e;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Ids allocated for writes that may not be visible to readers yet.
+ *
+ * <p>Ids are allocated before the documents carrying them are written, so concurrent writes can
+ * become visible out of id order: a reader may see id 11 while id 10 is still being written. An id
+ * is {@link #add(long) added} when it is allocated and {@link #settle(long) settled} once its write
+ * completed; it still counts for {@code grace} after that, covering readers whose query ran before
+ * the write became visible. Readers holding a position (a sync token, a last event id) must not
+ * advance it to or past {@link #lowest()}.
+ */
+public final class InFlightIds {
+
+    private record Settling(long id, long untilNanos) {}
+
+    private final long graceNanos;
+    private final LongSupplier nanoClock;
+
+    // Guarded by this: count of each id in flight, and settled ids in the order their grace ends.
+    private final TreeMap<Long, Integer> ids = new TreeMap<>();
+    private final Queue<Settling> settling = new ArrayDeque<>();
+
+    public InFlightIds(Duration grace) {
+        this(grace, System::nanoTime);
+    }
+
+    InFlightIds(Duration grace, LongSupplier nanoClock) {
+        this.graceNanos = grace.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public synchronized void add(long id) {
+        purgeExpired(nanoClock.getAsLong());
+        ids.merge(id, 1, Integer::sum);
+    }
+
+    /** Stops counting {@code id} at once, for an id that never gets written. */
+    public synchronized void remove(long id) {
+        ids.computeIfPresent(id, (ignored, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /** Stops counting {@code id} once the grace period after its write is over. */
+    public synchronized void settle(long id) {
+        long now = nanoClock.getAsLong();
+        purgeExpired(now);
+        settling.add(new Settling(id, now + graceNanos));
+    }
+
+    /**
+     * The lowest id in flight or in its grace period, or {@link Long#MAX_VALUE} if there is none.
+     */
+    public synchronized long lowest() {
+        purgeExpired(nanoClock.getAsLong());
+        return ids.isEmpty() ? Long.MAX_VALUE : ids.firstKey();
+    }
+
+    /** Number of distinct ids counted, including settled ones not purged yet. */
+    synchronized int size() {
+        return ids.size();
+    }
+
+    /**
+     * Drops the settled ids whose grace is over. Writers call it too, so the ids do not pile up
+     * while nobody asks for {@link #lowest()}.
+     */
+    private void purgeExpired(long now) {
+        for (Settling next = settling.peek();
+                next != null && now - next.untilNanos() >= 0;
+                next = settling.peek()) {
+            settling.poll();
+            remove(next.id());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Tails a {@link MappedJournal} directory, from this process or another one. Consumers keep their
+ * own offsets: each {@link #poll} starts where the previous one said to continue, so a consumer
+ * that stores its offset can resume after a restart.
+ *
+ * <p>Payloads are handed out as read-only views of the mapped segment, without copying; they stay
+ * valid after the segment is deleted by retention. Offsets older than the oldest retained segment
+ * continue at its first record. A reader is not thread-safe; use one per consumer.
+ */
+public final class JournalReader {
+
+    /** Receives the records of a {@link #poll}. */
+    @FunctionalInterface
+    public interface RecordHandler {
+
+        void onRecord(long offset, ByteBuffer payload);
+    }
+
+    private final Path directory;
+    private long currentBase = -1L;
+    private MappedByteBuffer current;
+
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /** The offset of the oldest retained record, or 0 if the journal is empty. */
+    public long firstOffset() throws IOException {
+        Map.Entry<Long, Path> first = MappedJournal.segments(directory).firstEntry();
+        return first != null ? first.getKey() + MappedJournal.SEGMENT_HEADER_SIZE : 0L;
+    }
+
+    /**
+     * Passes up to {@code maxRecords} records, starting at {@code offset}, to {@code handler}.
+     *
+     * @return the offset to continue from; {@code offset} itself if no new record was appended
+     * @throws IOException if a segment cannot be read or a record is corrupt
+     */
+    public long poll(long offset, int maxRecords, RecordHandler handler) throws IOException {
+        long next = offset;
+        int count = 0;
+        while (count < maxRecords) {
+            MappedByteBuffer segment = segmentFor(next);
+            if (segment == null) {
+                break;
+            }
+            long relative = next - currentBase;
+            int position =
+                    relative < MappedJournal.SEGMENT_HEADER_SIZE
+                            ? MappedJournal.SEGMENT_HEADER_SIZE
+                            : (int) relative;
+            if (position >= segment.capacity()) {
+                next = currentBase + segment.capacity();
+                continue;
+            }
+            int length = (int) MappedJournal.LENGTH.getAcquire(segment, position);
+            if (length == 0) {
+                next = currentBase + position;
+                break;
+            }
+            if (length == MappedJournal.END_OF_SEGMENT) {
+                next = currentBase + segment.capacity();
+                continue;
+            }
+            if (!MappedJournal.isIntact(segment, position, length)) {
+                throw new IOException(
+                        "Corrupt journal record at offset " + (currentBase + position));
+            }
+            handler.onRecord(
+                    currentBase + position,
+                    segment.slice(position + MappedJournal.RECORD_HEADER_SIZE, length)
+                            .asReadOnlyBuffer());
+            next = currentBase + position + MappedJournal.recordSize(length);
+            count++;
+        }
+        return next;
+    }
+
+    /**
+     * Maps the segment holding {@code offset}, or the oldest one if it was deleted; {@code null} if
+     * no segment holds it yet.
+     */
+    private MappedByteBuffer segmentFor(long offset) throws IOException {
+        if (current != null && offset >= currentBase && offset < currentBase + current.capacity()) {
+            return current;
+        }
+        Map.Entry<Long, Path> entry = MappedJournal.segments(directory).floorEntry(offset);
+        if (entry == null) {
+            entry = MappedJournal.segments(directory).firstEntry();
+            if (entry == null) {
+                return null;
+            }
+        }
+        MappedByteBuffer segment;
+        try (FileChannel channel = FileChannel.open(entry.getValue(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MappedJournal.SEGMENT_HEADER_SIZE || size > Integer.MAX_VALUE) {
+                // Still being created.
+                return null;
+            }
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            // Deleted by retention meanwhile; the next poll starts from the oldest segment.
+            return null;
+        }
+        int magic = (int) MappedJournal.LENGTH.getAcquire(segment, 0);
+        if (magic == 0) {
+            return null;
+        }
+        if (magic != MappedJournal.MAGIC) {
+            throw new IOException("Not a journal segment: " + entry.getValue());
+        }
+        if (offset >= entry.getKey() + segment.capacity()) {
+            // Past the end of the newest segment: its successor is not there yet.
+            return null;
+        }
+        currentBase = entry.getKey();
+        current = segment;
+        return segment;
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of opaque records in a directory of memory-mapped segment files, for
+ * consumers that tail it with a {@link JournalReader}, in this process or another one.
+ *
+ * <p>Segment files are named after their base offset and preallocated to the segment size: their
+ * blocks are reserved by writing zeros before they are mapped, so a full disk fails the roll-over
+ * with an {@link IOException} instead of crashing the JVM with SIGBUS on a later write. Layout of a
+ * segment: a header of {@code magic (int), version (int), created (long, epoch millis)} followed by
+ * records of {@code length (int), crc32c (int)} and the payload, padded to 8 bytes. A length of 0
+ * marks the end of the written records; a length of -1 marks a segment that is full, so readers
+ * continue with the next one. The offset of a record is its segment's base offset plus its position
+ * in the segment, so offsets grow monotonically and survive restarts.
+ *
+ * <p>Appends only copy the payload into the mapping; the length is written last, with release
+ * semantics, so a reader never sees a partial record. A single flusher thread forces the written
+ * range to disk every {@code flushInterval}, or as soon as someone waits in {@link #sync(long)}:
+ * all records appended by then share that fsync (group fsync).
+ *
+ * <p>When a segment is rolled over, closed segments beyond the {@link Retention} limits are
+ * deleted, oldest first; {@link #enforceRetention()} also applies the age limit while no segment is
+ * rolled over.
+ */
+public final class MappedJournal implements AutoCloseable {
+
+    /**
+     * Closed segments are deleted once all segments together exceed {@code maxBytes}, or once they
+     * were closed more than {@code maxAge} ago. The segment being written is always kept.
+     */
+    public record Retention(long maxBytes, Duration maxAge) {}
+
+    static final int MAGIC = 0x4B534A4C; // "KSJL"
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES;
+    static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+    static final int END_OF_SEGMENT = -1;
+    static final String SUFFIX = ".journal";
+
+    /** Record lengths are published and read with release/acquire semantics. */
+    static final VarHandle LENGTH =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    /** Written over new segments to reserve their disk space; shared read-only. */
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(1 << 20).asReadOnlyBuffer();
+
+    private static final class Segment {
+        final long base;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+
+        /** Bytes from the start already forced to disk, only used by the flusher. */
+        int forced;
+
+        Segment(long base, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalNanos;
+    private final Retention retention;
+    private final IntConsumer recordsPerSync;
+    private final Clock clock;
+    private final Thread flusher;
+
+    // Guarded by this.
+    private Segment active;
+    private int position;
+    private long appended;
+    private final List<Segment> unforced = new ArrayList<>();
+
+    private volatile boolean closed;
+
+    // Guarded by flushLock.
+    private final Object flushLock = new Object();
+    private boolean flushRequested;
+    private long durable;
+    private long synced;
+    private long failedFlushes;
+    private Exception lastFailure;
+
+    /**
+     * Opens the journal in {@code directory}, creating it if needed, and starts the flusher thread.
+     * After a crash, the last segment is scanned and everything after its last intact record is
+     * discarded.
+     *
+     * @param segmentSize size of a segment file in bytes, a multiple of 8; bounds the record size
+     * @param recordsPerSync notified of the number of records made durable by each fsync, e.g. to
+     *     record a metric
+     */
+    public static MappedJournal open(
+            Path directory,
+            int segmentSize,
+            Duration flushInterval,
+            Retention retention,
+            IntConsumer recordsPerSync)
+            throws IOException {
+        return new MappedJournal(
+                directory,
+                segmentSize,
+                flushInterval,
+                retention,
+                recordsPerSync,
+                Clock.systemUTC());
+    }
+
+    MappedJournal(
+            Path directory,
+            int segmentSize,
+            Duration flushInterval,
+            Retention retention,
+            IntConsumer recordsPerSync,
+            Clock clock)
+            throws IOException {
+        if (segmentSize % 8 != 0 || segmentSize < SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE + 8) {
+            throw new IllegalArgumentException("Invalid journal segment size: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalNanos = Math.max(1L, flushInterval.toNanos());
+        this.retention = retention;
+        this.recordsPerSync = recordsPerSync;
+        this.clock = clock;
+
+        Files.createDirectories(directory);
+        Map.Entry<Long, Path> last = segments(directory).lastEntry();
+        if (last == null) {
+            active = createSegment(0L);
+            position = SEGMENT_HEADER_SIZE;
+        } else {
+            recover(last.getKey(), last.getValue());
+        }
+        durable = end();
+
+        flusher = new Thread(this::runFlusher, "journal-flusher-" + directory.getFileName());
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** Appends a record; see {@link #append(ByteBuffer)}. */
+    public long append(byte[] payload) throws IOException {
+        return append(ByteBuffer.wrap(payload));
+    }
+
+    /**
+     * Appends the remaining bytes of {@code payload} as one record, without waiting for it to be
+     * forced to disk. Readers see it as soon as this returns.
+     *
+     * @return the offset of the record, to pass to {@link #sync(long)}
+     * @throws IllegalArgumentException if the payload is empty or does not fit in a segment
+     */
+    public synchronized long append(ByteBuffer payload) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed: " + directory);
+        }
+        int length = payload.remaining();
+        int size = recordSize(length);
+        if (length == 0 || size > segmentSize - SEGMENT_HEADER_SIZE) {
+            throw new IllegalArgumentException(
+                    "Journal records must be 1 to "
+                            + (segmentSize - SEGMENT_HEADER_SIZE - RECORD_HEADER_SIZE)
+                            + " bytes: "
+                            + length);
+        }
+        MappedByteBuffer buffer = active.buffer;
+        if (position + size > buffer.capacity()) {
+            if (position < buffer.capacity()) {
+                LENGTH.setRelease(buffer, position, END_OF_SEGMENT);
+            }
+            roll();
+            buffer = active.buffer;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        buffer.put(position + RECORD_HEADER_SIZE, payload, payload.position(), length);
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        LENGTH.setRelease(buffer, position, length);
+
+        long offset = active.base + position;
+        position += size;
+        appended++;
+        return offset;
+    }
+
+    /**
+     * Waits until the record at {@code offset}, and everything appended before it, is forced to
+     * disk. Concurrent callers share one fsync.
+     *
+     * @throws IOException if the fsync failed
+     */
+    public void sync(long offset) throws IOException {
+        synchronized (flushLock) {
+            long failedBefore = failedFlushes;
+            while (durable <= offset) {
+                if (failedFlushes != failedBefore) {
+                    throw new IOException(
+                            "Failed to force journal to disk: " + directory, lastFailure);
+                }
+                if (closed && !flusher.isAlive()) {
+                    throw new IllegalStateException("Journal is closed: " + directory);
+                }
+                if (!flushRequested) {
+                    // Waiters arriving until the flusher picks this up join the same fsync.
+                    flushRequested = true;
+                    flushLock.notifyAll();
+                }
+                try {
+                    flushLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for journal sync", e);
+                }
+            }
+        }
+    }
+
+    /** The offset the next record will be appended at or after. */
+    public synchronized long end() {
+        return active.base + position;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Deletes closed segments beyond the retention limits, oldest first.
+     *
+     * @return the number of segments deleted
+     */
+    public synchronized int enforceRetention() throws IOException {
+        TreeMap<Long, Path> segments = segments(directory);
+        long total = 0;
+        for (Path path : segments.values()) {
+            total += Files.size(path);
+        }
+        long ageLimit = clock.millis() - retention.maxAge().toMillis();
+        List<Path> paths = new ArrayList<>(segments.values());
+        int deleted = 0;
+        for (int i = 0; i < paths.size() - 1; i++) {
+            Map.Entry<Long, Path> entry = segments.pollFirstEntry();
+            if (entry.getKey() >= active.base) {
+                break;
+            }
+            // A segment was closed when the one after it was created.
+            boolean expired = createdMillis(paths.get(i + 1)) < ageLimit;
+            if (total <= retention.maxBytes() && !expired) {
+                break;
+            }
+            total -= Files.size(entry.getValue());
+            Files.deleteIfExists(entry.getValue());
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /** Forces what was appended to disk and stops the flusher thread. */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        synchronized (flushLock) {
+            flushLock.notifyAll();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            closeQuietly(active);
+            unforced.forEach(MappedJournal::closeQuietly);
+        }
+    }
+
+    static int recordSize(int length) {
+        return (RECORD_HEADER_SIZE + length + 7) & ~7;
+    }
+
+    /** Whether a record of {@code length} at {@code position} is complete and intact. */
+    static boolean isIntact(ByteBuffer segment, int position, int length) {
+        if (length <= 0 || length > segment.capacity() - position - RECORD_HEADER_SIZE) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(position + RECORD_HEADER_SIZE, length));
+        return (int) crc.getValue() == segment.getInt(position + Integer.BYTES);
+    }
+
+    /** Segment files in {@code directory} by base offset. */
+    static TreeMap<Long, Path> segments(Path directory) throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.put(
+                            Long.parseLong(name.substring(0, name.length() - SUFFIX.length())),
+                            file);
+                } catch (NumberFormatException e) {
+                    // Not a segment.
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static String fileName(long base) {
+        return String.format("%020d%s", base, SUFFIX);
+    }
+
+    private void roll() throws IOException {
+        // If creating the next segment fails, the next append tries again.
+        Segment next = createSegment(active.base + active.buffer.capacity());
+        unforced.add(active);
+        active = next;
+        position = SEGMENT_HEADER_SIZE;
+        enforceRetention();
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Path path = directory.resolve(fileName(base));
+        FileChannel channel =
+                FileChannel.open(
+                        path,
+                        StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        try {
+            reserve(channel);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            buffer.putInt(Integer.BYTES, VERSION).putLong(Integer.BYTES * 2, clock.millis());
+            LENGTH.setRelease(buffer, 0, MAGIC);
+            return new Segment(base, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes zeros over the whole segment, so the file system allocates its blocks now. The blocks
+     * of a sparse file are only allocated when the mapping is written to, and if the disk is full
+     * by then the write raises SIGBUS.
+     */
+    private void reserve(FileChannel channel) throws IOException {
+        ByteBuffer zeros = ZEROS.duplicate();
+        long written = 0;
+        while (written < segmentSize) {
+            zeros.clear().limit((int) Math.min(zeros.capacity(), segmentSize - written));
+            while (zeros.hasRemaining()) {
+                written += channel.write(zeros, written);
+            }
+        }
+    }
+
+    private void recover(long base, Path path) throws IOException {
+        FileChannel channel =
+                FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < SEGMENT_HEADER_SIZE || size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Not a journal segment: " + path);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            channel.close();
+            throw new IOException("Not a journal segment: " + path);
+        }
+        active = new Segment(base, channel, buffer);
+        position = SEGMENT_HEADER_SIZE;
+        while (position < buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == END_OF_SEGMENT) {
+                // Full, but its successor was never created: roll over on the next append.
+                position = buffer.capacity();
+                break;
+            }
+            if (!isIntact(buffer, position, length)) {
+                break;
+            }
+            position += recordSize(length);
+        }
+        // Clear what a crash left behind, so later records are not read together with it.
+        boolean cleared = false;
+        for (int i = position; i < buffer.capacity(); i += Long.BYTES) {
+            if (buffer.getLong(i) != 0L) {
+                buffer.putLong(i, 0L);
+                cleared = true;
+            }
+        }
+        if (cleared) {
+            buffer.force();
+        }
+        active.forced = position;
+    }
+
+    private static long createdMillis(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {}
+            return header.remaining() == 0 ? header.getLong(Integer.BYTES * 2) : 0L;
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            synchronized (flushLock) {
+                if (!flushRequested && !closed) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(flushLock, flushIntervalNanos);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                flushRequested = false;
+            }
+            boolean last = closed;
+            flush();
+            if (last) {
+                return;
+            }
+        }
+    }
+
+    /** Forces everything appended so far to disk and wakes up the threads waiting for it. */
+    private void flush() {
+        List<Segment> rolled;
+        Segment segment;
+        int upTo;
+        long target;
+        long records;
+        synchronized (this) {
+            rolled = new ArrayList<>(unforced);
+            segment = active;
+            upTo = position;
+            target = segment.base + position;
+            records = appended;
+        }
+        try {
+            for (Segment full : rolled) {
+                full.buffer.force();
+                full.channel.close();
+                synchronized (this) {
+                    unforced.remove(full);
+                }
+            }
+            if (upTo > segment.forced) {
+                segment.buffer.force(segment.forced, upTo - segment.forced);
+                segment.forced = upTo;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            synchronized (flushLock) {
+                failedFlushes++;
+                lastFailure = e;
+                flushLock.notifyAll();
+            }
+            return;
+        }
+        synchronized (flushLock) {
+            if (records > synced) {
+                recordsPerSync.accept((int) Math.min(Integer.MAX_VALUE, records - synced));
+                synced = records;
+            }
+            durable = Math.max(durable, target);
+            flushLock.notifyAll();
+        }
+    }
+
+    private static void closeQuietly(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with it.
+        }
+    }
+}
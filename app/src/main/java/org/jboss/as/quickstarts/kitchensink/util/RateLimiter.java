@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key token bucket, implemented as the generic cell rate algorithm (GCRA).
+ *
+ * <p>Each key's bucket is a single {@link AtomicLong} holding its theoretical arrival time: the
+ * instant at which the bucket will be full again. A request advances it by one emission interval
+ * ({@code 1 / rate}) with a compare-and-set and is allowed as long as that stays within {@code
+ * burst} intervals of now, so neither allowing nor throttling takes a lock or allocates more than
+ * the returned {@link Decision}.
+ *
+ * <p>A bucket whose arrival time has passed is full and therefore indistinguishable from a new one;
+ * {@link #evictIdle(long)} removes those to bound memory. A request racing with the eviction of its
+ * own key may at worst be granted one extra token.
+ */
+public final class RateLimiter {
+
+    /**
+     * Outcome of {@link #tryAcquire}.
+     *
+     * @param remaining requests that would still be allowed right now
+     * @param resetNanos time until the bucket is full again
+     * @param retryAfterNanos time until the next request would be allowed; 0 if allowed
+     */
+    public record Decision(boolean allowed, int remaining, long resetNanos, long retryAfterNanos) {}
+
+    private final int burst;
+    private final long emissionNanos;
+    private final long toleranceNanos;
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param ratePerSecond sustained requests per second
+     * @param burst requests that may be made at once by a client that has been idle
+     */
+    public RateLimiter(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid rate limit: " + ratePerSecond + "/s, burst " + burst);
+        }
+        this.burst = burst;
+        this.emissionNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.toleranceNanos = emissionNanos * burst;
+    }
+
+    public int burst() {
+        return burst;
+    }
+
+    public Decision tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        }
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, nowNanos) + emissionNanos;
+            long ahead = newTat - nowNanos;
+            if (ahead > toleranceNanos) {
+                long resetNanos = Math.max(0L, tat - nowNanos);
+                return new Decision(false, 0, resetNanos, ahead - toleranceNanos);
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                int remaining = (int) ((toleranceNanos - ahead) / emissionNanos);
+                return new Decision(true, remaining, ahead, 0L);
+            }
+        }
+    }
+
+    /** Removes the buckets of keys that are full again; returns how many were removed. */
+    public int evictIdle(long nowNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(tat -> tat.get() - nowNanos <= 0);
+        return before - buckets.size();
+    }
+
+    /** Number of keys currently tracked. */
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.MDC;
+
+/**
+ * Request (correlation) ids.
+ *
+ * <p>{@link #newId()} returns a 26 character, time-ordered id in the ULID layout: 48 bits of
+ * milliseconds since the epoch followed by 80 random bits, in Crockford base 32. The random part
+ * comes from {@link ThreadLocalRandom}, so, unlike {@code UUID.randomUUID()}, generating an id
+ * never contends on a shared {@code SecureRandom}. The ids are unique enough to correlate logs but
+ * are not suitable as secrets.
+ */
+public final class RequestIds {
+
+    /** MDC key under which the current request's correlation id is stored. */
+    public static final String MDC_KEY = "correlationId";
+
+    /** Longest client-supplied id accepted, enough for a UUID or a prefixed ULID. */
+    public static final int MAX_LENGTH = 64;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private RequestIds() {}
+
+    public static String newId() {
+        return newId(System.currentTimeMillis(), ThreadLocalRandom.current());
+    }
+
+    static String newId(long millis, ThreadLocalRandom random) {
+        char[] id = new char[26];
+        // 48-bit timestamp in 10 characters (the first one carries only 3 bits).
+        for (int i = 9; i >= 0; i--) {
+            id[i] = ALPHABET[(int) (millis & 31)];
+            millis >>>= 5;
+        }
+        // 80 random bits in 16 characters: 64 from one long and 16 from an int.
+        long high = random.nextLong();
+        int low = random.nextInt();
+        for (int i = 10; i < 22; i++) {
+            id[i] = ALPHABET[(int) (high & 31)];
+            high >>>= 5;
+        }
+        long rest = (high & 0xF) << 16 | (low & 0xFFFF);
+        for (int i = 25; i >= 22; i--) {
+            id[i] = ALPHABET[(int) (rest & 31)];
+            rest >>>= 5;
+        }
+        return new String(id);
+    }
+
+    /**
+     * Whether a client-supplied id can be used as is: at most {@link #MAX_LENGTH} characters, all
+     * ASCII letters, digits, {@code -}, {@code _}, {@code .} or {@code :}. It ends up in logs and
+     * MongoDB command comments, so anything else is replaced with a {@link #newId()}.
+     */
+    public static boolean isValid(String id) {
+        if (id == null || id.isEmpty() || id.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!((c >= 'a' && c <= 'z')
+                    || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9')
+                    || c == '-'
+                    || c == '_'
+                    || c == '.'
+                    || c == ':')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The correlation id of the request being handled on this thread, or {@code null}. */
+    public static String current() {
+        return MDC.get(MDC_KEY);
+    }
+}
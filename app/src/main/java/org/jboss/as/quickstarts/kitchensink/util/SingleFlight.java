@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collapses concurrent calls for the same key onto one execution.
+ *
+ * <p>The first caller for a key (the leader) runs the call on its own thread; callers arriving
+ * while it is in flight wait for it and receive the same value or exception, marked as {@link
+ * Result#shared() shared}. Once the call completes, the next caller starts a new one: results are
+ * never cached.
+ */
+public final class SingleFlight<K, V> {
+
+    /** Value of a call, and whether it was produced by another caller's execution. */
+    public record Result<V>(V value, boolean shared) {}
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    public Result<V> execute(K key, Callable<V> call) throws Exception {
+        CompletableFuture<V> leader = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, leader);
+        if (inFlight != null) {
+            return new Result<>(await(inFlight), true);
+        }
+        try {
+            V value = call.call();
+            leader.complete(value);
+            return new Result<>(value, false);
+        } catch (Throwable t) {
+            leader.completeExceptionally(t);
+            throw t;
+        } finally {
+            calls.remove(key, leader);
+        }
+    }
+
+    /** Number of keys with a call in flight. */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> call) throws Exception {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates 64-bit, roughly time-ordered ids without coordination: 41 bits of milliseconds since
+ * {@link #EPOCH_MILLIS}, a 10-bit node id and a 12-bit per-node sequence. Ids from one generator
+ * are strictly increasing; ids of different nodes are unique as long as no two generators run with
+ * the same node id at the same time.
+ *
+ * <p>A generator only issues ids with timestamps from {@code floorMillis} up to, but excluding, its
+ * lease deadline. A node id handed over to another generator therefore cannot repeat ids as long as
+ * the new generator's floor is the old one's deadline, whatever the two clocks say. When the clock
+ * goes backwards, or more than 4096 ids are drawn in one millisecond, the generator keeps counting
+ * from its last timestamp instead of waiting.
+ */
+public final class SnowflakeIdGenerator {
+
+    /** 2024-01-01T00:00:00Z. Changing it would break the ordering of existing ids. */
+    public static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_TIMESTAMP = (1L << (63 - NODE_BITS - SEQUENCE_BITS)) - 1;
+
+    private final int nodeId;
+    private final LongSupplier clock;
+
+    /** Timestamp (relative to the epoch) and sequence of the last id, packed like in the id. */
+    private final AtomicLong last;
+
+    private volatile long deadlineMillis;
+
+    /**
+     * @param floorMillis no id gets an earlier timestamp (epoch milliseconds)
+     * @param deadlineMillis no id gets this or a later timestamp, until {@link #extendLease(long)}
+     */
+    public SnowflakeIdGenerator(
+            int nodeId, long floorMillis, long deadlineMillis, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id out of range: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.deadlineMillis = deadlineMillis;
+        // One below the first id of the floor millisecond.
+        this.last = new AtomicLong((Math.max(floorMillis - EPOCH_MILLIS, 0) << SEQUENCE_BITS) - 1);
+    }
+
+    public long nextId() {
+        long now = clock.getAsLong() - EPOCH_MILLIS;
+        while (true) {
+            long previous = last.get();
+            // A full sequence carries over into the next millisecond.
+            long next = now > previous >> SEQUENCE_BITS ? now << SEQUENCE_BITS : previous + 1;
+            long timestamp = next >> SEQUENCE_BITS;
+            if (timestamp + EPOCH_MILLIS >= deadlineMillis) {
+                throw new IllegalStateException(
+                        "Lease of node id " + nodeId + " expired, cannot generate ids");
+            }
+            if (timestamp > MAX_TIMESTAMP) {
+                throw new IllegalStateException("Id timestamp range exhausted");
+            }
+            if (last.compareAndSet(previous, next)) {
+                return timestamp << (NODE_BITS + SEQUENCE_BITS)
+                        | (long) nodeId << SEQUENCE_BITS
+                        | next & SEQUENCE_MASK;
+            }
+        }
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    /** Whether the lease deadline has passed, so that no more ids can be issued. */
+    public boolean isExpired() {
+        return clock.getAsLong() >= deadlineMillis;
+    }
+
+    /** Allows ids with timestamps up to, but excluding, {@code deadlineMillis}. */
+    public void extendLease(long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Stops issuing ids.
+     *
+     * @return a timestamp above that of every id issued, usable as the floor of the next owner
+     */
+    public long close() {
+        deadlineMillis = Long.MIN_VALUE;
+        // An id racing with this call read the clock before it and stays below both bounds.
+        return Math.max((last.get() >> SEQUENCE_BITS) + EPOCH_MILLIS, clock.getAsLong()) + 1;
+    }
+
+    /** The smallest id a generator with the given floor can issue. */
+    public static long minimumId(long floorMillis) {
+        return Math.max(floorMillis - EPOCH_MILLIS, 0) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    /** Epoch milliseconds at which {@code id} was generated. */
+    public static long timestampOf(long id) {
+        return (id >> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeIdOf(long id) {
+        return (int) (id >> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import org.slf4j.MDC;
+
+/**
+ * Marks the synthetic requests the warm-up phase sends through the HTTP server.
+ *
+ * <p>They carry {@link #HEADER} with a token drawn at startup, so clients cannot pass their own
+ * requests off as warm-up traffic. Marked requests are not rate limited, are tagged {@code
+ * traffic=warm-up} in the HTTP server metrics and have {@link #MDC_KEY} set in their log lines.
+ */
+public final class WarmUpTraffic {
+
+    public static final String HEADER = "X-Warm-Up";
+
+    /** MDC key set while a warm-up request is handled. */
+    public static final String MDC_KEY = "warmUp";
+
+    private static final byte[] TOKEN = newToken();
+
+    private WarmUpTraffic() {}
+
+    private static byte[] newToken() {
+        byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        return HexFormat.of().formatHex(random).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** The value of {@link #HEADER} on warm-up requests. */
+    public static String token() {
+        return new String(TOKEN, StandardCharsets.US_ASCII);
+    }
+
+    /** Whether a request with this {@link #HEADER} value was sent by the warm-up. */
+    public static boolean isWarmUp(String header) {
+        return header != null
+                && MessageDigest.isEqual(TOKEN, header.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Whether the request being handled on this thread was sent by the warm-up. */
+    public static boolean current() {
+        return MDC.get(MDC_KEY) != null;
+    }
+}
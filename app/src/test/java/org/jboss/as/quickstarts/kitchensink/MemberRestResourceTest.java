@@ -18,9 +18,11 @@ package org.jboss.as.quickstarts.kitchensink;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.panache.common.Sort;
 import io.quarkus.qute.Location;
 import io.quarkus.qute.Template;
@@ -32,6 +34,7 @@ import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Alternative;
 import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.core.MediaType;
 import java.util.ArrayList;
@@ -40,6 +43,7 @@ import java.util.List;
 import java.util.Optional;
 import org.jboss.as.quickstarts.kitchensink.model.Member;
 import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.service.MemberCounter;
 import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -51,6 +55,8 @@ public class MemberRestResourceTest {
 
     @InjectMock MemberRepository memberRepository;
     @InjectMock MemberRegistration memberRegistration;
+    @Inject MeterRegistry registry;
+    @Inject MemberCounter memberCounter;
 
     // Producer for the mock template
     @Alternative
@@ -145,6 +151,26 @@ public class MemberRestResourceTest {
                 .body("[1].email", equalTo("jane.doe@example.com"));
     }
 
+    @Test
+    public void testCountMembersApi_matchesTotalCountHeader() {
+        when(memberRepository.listAll(ArgumentMatchers.any(Sort.class))).thenReturn(membersList);
+        long count = memberCounter.get();
+
+        RestAssured.given()
+                .when()
+                .get("/rest/app/api/members/count")
+                .then()
+                .statusCode(200)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("count", equalTo((int) count));
+        RestAssured.given()
+                .when()
+                .get("/rest/app/api/members")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", String.valueOf(count));
+    }
+
     @Test
     public void testGetAllMembersApi_whenNoMembersExist() {
         when(memberRepository.listAll(ArgumentMatchers.any(Sort.class)))
@@ -231,6 +257,33 @@ public class MemberRestResourceTest {
                 .body("email", equalTo(newMember.email));
     }
 
+    @Test
+    public void testCreateMemberApi_isConcurrencyLimited() throws Exception {
+        Mockito.doNothing().when(memberRegistration).register(ArgumentMatchers.any(Member.class));
+
+        RestAssured.given()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new Member("Limited User", "limited.user@example.com", "1122334455"))
+                .when()
+                .post("/rest/app/api/members")
+                .then()
+                .statusCode(201);
+
+        // The permit taken by the filter has been released again.
+        assertEquals(
+                0.0,
+                registry.get("http.concurrency.in.flight")
+                        .tag("limiter", "registration")
+                        .gauge()
+                        .value());
+        assertTrue(
+                registry.get("http.concurrency.limit")
+                                .tag("limiter", "registration")
+                                .gauge()
+                                .value()
+                        >= 4);
+    }
+
     @Test
     public void testCreateMemberApi_validationFailure_blankName() {
         Member newMember = new Member();
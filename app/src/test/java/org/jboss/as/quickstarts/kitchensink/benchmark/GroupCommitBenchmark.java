@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.benchmark;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.jboss.as.quickstarts.kitchensink.util.GroupCommitQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load test of group commit against a simulated MongoDB: 64 concurrent registrations write through
+ * a pool of {@value #CONNECTIONS} connections, and each write costs a fixed round trip plus a small
+ * amount per document. Run in both modes to see the trade-off: throughput (ops/ms) grows with the
+ * batch size while the per-registration latency (sample time) pays up to {@code maxWaitMicros}.
+ *
+ * <p>{@code direct} is one insert per registration, as with group commit disabled.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class GroupCommitBenchmark {
+
+    private static final int CONNECTIONS = 8;
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final long PER_DOCUMENT_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    @Param({"16", "64"})
+    int maxBatch;
+
+    @Param({"500", "2000"})
+    int maxWaitMicros;
+
+    private final Semaphore connections = new Semaphore(CONNECTIONS);
+    private GroupCommitQueue<Long> queue;
+
+    @Setup(Level.Trial)
+    public void start() {
+        queue =
+                new GroupCommitQueue<>(
+                        "benchmark-group-commit",
+                        maxBatch,
+                        Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(maxWaitMicros)),
+                        this::insert,
+                        n -> {});
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        queue.close();
+    }
+
+    @Benchmark
+    public void direct() throws InterruptedException {
+        insert(List.of(System.nanoTime()));
+    }
+
+    @Benchmark
+    public void groupCommit() throws Exception {
+        queue.write(System.nanoTime());
+    }
+
+    private Map<Integer, Exception> insert(List<Long> documents) throws InterruptedException {
+        connections.acquire();
+        try {
+            LockSupport.parkNanos(ROUND_TRIP_NANOS + PER_DOCUMENT_NANOS * documents.size());
+        } finally {
+            connections.release();
+        }
+        return Map.of();
+    }
+}
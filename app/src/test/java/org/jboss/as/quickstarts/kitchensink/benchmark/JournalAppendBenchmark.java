@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.jboss.as.quickstarts.kitchensink.util.MappedJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Records per second appended to a {@link MappedJournal} by 16 concurrent registrations, with
+ * records the size of a journaled member. {@code sync} waits for each record's fsync, as
+ * registrations do with {@code kitchensink.journal.sync}; concurrent appends share those fsyncs, so
+ * compare it with a single thread ({@code -t 1}) to see the effect of group fsync. Segments roll
+ * over and are deleted by retention during the run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class JournalAppendBenchmark {
+
+    @Param({"128", "1024"})
+    int recordSize;
+
+    @Param({"false", "true"})
+    boolean sync;
+
+    private Path directory;
+    private MappedJournal journal;
+    private byte[] record;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal =
+                MappedJournal.open(
+                        directory,
+                        16 * 1024 * 1024,
+                        Duration.ofSeconds(1),
+                        new MappedJournal.Retention(256L * 1024 * 1024, Duration.ofDays(1)),
+                        n -> {});
+        record = new byte[recordSize];
+        Arrays.fill(record, (byte) 'x');
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public long append() throws IOException {
+        long offset = journal.append(record);
+        if (sync) {
+            journal.sync(offset);
+        }
+        return offset;
+    }
+}
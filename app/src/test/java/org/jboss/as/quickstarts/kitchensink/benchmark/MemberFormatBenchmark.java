@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.service.SyntheticMemberGenerator;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Payload size and serialization cost of a 10,000 member list in each format the member API offers.
+ * {@code serialize} and {@code deserialize} are the two halves of a round trip, and the size of the
+ * list in the format is printed when each trial starts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemberFormatBenchmark {
+
+    private static final int MEMBERS = 10_000;
+    private static final TypeReference<List<Member>> MEMBER_LIST = new TypeReference<>() {};
+
+    @Param({"json", "cbor", "smile", "msgpack"})
+    String format;
+
+    private ObjectMapper mapper;
+    private List<Member> members;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory =
+                switch (format) {
+                    case "cbor" -> new CBORFactory();
+                    case "smile" -> new SmileFactory();
+                    case "msgpack" -> new MessagePackFactory();
+                    default -> new JsonFactory();
+                };
+        mapper = new ObjectMapper(factory);
+        members = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = SyntheticMemberGenerator.create(i);
+            member.setId((long) i);
+            members.add(member);
+        }
+        payload = mapper.writeValueAsBytes(members);
+        System.out.printf(
+                "%n%s payload for %d members: %d bytes%n", format, MEMBERS, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(members);
+    }
+
+    @Benchmark
+    public List<Member> deserialize() throws IOException {
+        return mapper.readValue(payload, MEMBER_LIST);
+    }
+}
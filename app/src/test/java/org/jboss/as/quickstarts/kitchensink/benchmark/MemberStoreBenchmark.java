@@ -0,0 +1,173 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.service.OffHeapMemberStore;
+import org.jboss.as.quickstarts.kitchensink.service.SyntheticMemberGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The member cache holding {@code members} members as objects on the heap ({@code heap}, a {@code
+ * ConcurrentSkipListMap} as in {@code MemberCache}) or in an {@link OffHeapMemberStore}, under a
+ * read load that also allocates {@value #REQUEST_GARBAGE} bytes per operation, as request handling
+ * would.
+ *
+ * <p>Besides the throughput of lookups and name-ordered pages, each trial prints the heap retained
+ * by the loaded cache, the pause of a full GC with it loaded, and the total GC time during
+ * measurement. Run with {@code -prof gc} for allocation rates and GC counts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(
+        value = 1,
+        jvmArgs = {"-Xms3g", "-Xmx3g", "-XX:+UseG1GC"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class MemberStoreBenchmark {
+
+    /** Bytes allocated per operation besides the members read, standing in for a request. */
+    private static final int REQUEST_GARBAGE = 2048;
+
+    @Param({"1000000"})
+    int members;
+
+    @Param({"heap", "off-heap"})
+    String store;
+
+    private ConcurrentSkipListMap<Long, Member> heap;
+    private OffHeapMemberStore offHeap;
+    private long gcMillisBefore;
+    private long gcCountBefore;
+
+    @Setup(Level.Trial)
+    public void load() {
+        long before = usedHeapAfterGc();
+        if (store.equals("heap")) {
+            heap = new ConcurrentSkipListMap<>();
+            for (long id = 0; id < members; id++) {
+                heap.put(id, member(id));
+            }
+        } else {
+            offHeap = new OffHeapMemberStore(16 * 1024 * 1024);
+            for (long id = 0; id < members; id++) {
+                offHeap.put(member(id));
+            }
+            offHeap.byName();
+        }
+        long retained = usedHeapAfterGc() - before;
+        long start = System.nanoTime();
+        System.gc();
+        long fullGcMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf(
+                "%n%s: %d members retain %d MB of heap%s; full GC pause %d ms%n",
+                store,
+                members,
+                retained / (1024 * 1024),
+                offHeap != null
+                        ? " and " + offHeap.offHeapBytes() / (1024 * 1024) + " MB off heap"
+                        : "",
+                fullGcMillis);
+        gcMillisBefore = gcMillis();
+        gcCountBefore = gcCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf(
+                "%n%s: %d ms spent in %d GCs after loading%n",
+                store, gcMillis() - gcMillisBefore, gcCount() - gcCountBefore);
+    }
+
+    @Benchmark
+    public Member lookup(Blackhole blackhole) {
+        blackhole.consume(new byte[REQUEST_GARBAGE]);
+        long id = ThreadLocalRandom.current().nextLong(members);
+        return heap != null ? heap.get(id) : offHeap.get(id);
+    }
+
+    /** A page of 20 members in name order, as rendered by the UI. */
+    @Benchmark
+    public int namePage(Blackhole blackhole) {
+        blackhole.consume(new byte[REQUEST_GARBAGE]);
+        if (heap != null) {
+            // On the heap the cache has no name order; the list comes from MongoDB instead, so
+            // just touch as many members.
+            int length = 0;
+            for (int i = 0; i < 20; i++) {
+                length += heap.get(ThreadLocalRandom.current().nextLong(members)).name.length();
+            }
+            return length;
+        }
+        List<Member> byName = offHeap.byName();
+        int from = ThreadLocalRandom.current().nextInt(byName.size() - 20);
+        int length = 0;
+        for (Member member : byName.subList(from, from + 20)) {
+            length += member.name.length();
+        }
+        return length;
+    }
+
+    private static Member member(long id) {
+        Member member = SyntheticMemberGenerator.create(id);
+        member.setId(id);
+        return member;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
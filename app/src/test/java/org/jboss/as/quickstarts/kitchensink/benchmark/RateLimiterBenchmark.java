@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.jboss.as.quickstarts.kitchensink.util.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a {@link RateLimiter} decision with 10,000 tracked clients, all threads at once: {@code
+ * throttled} is a client far over its limit (the hot path during abuse), {@code allowed} spreads
+ * requests over clients that stay within theirs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private final String[] clients = new String[CLIENTS];
+    private RateLimiter throttling;
+    private RateLimiter generous;
+
+    @Setup
+    public void setUp() {
+        throttling = new RateLimiter(1, 1);
+        generous = new RateLimiter(1_000_000_000, 1_000_000);
+        long now = System.nanoTime();
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+            throttling.tryAcquire(clients[i], now);
+            generous.tryAcquire(clients[i], now);
+        }
+    }
+
+    @Benchmark
+    public RateLimiter.Decision throttled() {
+        return throttling.tryAcquire(clients[0], System.nanoTime());
+    }
+
+    @Benchmark
+    public RateLimiter.Decision allowed() {
+        String client = clients[ThreadLocalRandom.current().nextInt(CLIENTS)];
+        return generous.tryAcquire(client, System.nanoTime());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.service.SyntheticMemberGenerator;
+import org.jboss.as.quickstarts.kitchensink.util.BsonJsonTranscoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of turning a 1,000 member list read from MongoDB into a JSON response: decoding the BSON
+ * into {@link Member}s and serializing them with Jackson, against transcoding the raw documents.
+ * Run with {@code -prof gc} to compare the allocation per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RawBsonReadBenchmark {
+
+    private static final int MEMBERS = 1_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BsonJsonTranscoder transcoder = new BsonJsonTranscoder(Map.of("_id", "id"));
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+    private Codec<Member> codec;
+    private List<RawBsonDocument> documents;
+
+    @Setup
+    public void setUp() {
+        codec =
+                CodecRegistries.fromRegistries(
+                                MongoClientSettings.getDefaultCodecRegistry(),
+                                CodecRegistries.fromProviders(
+                                        PojoCodecProvider.builder().automatic(true).build()))
+                        .get(Member.class);
+        documents = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = SyntheticMemberGenerator.create(i);
+            member.setId((long) i);
+            documents.add(new RawBsonDocument(member, codec));
+        }
+    }
+
+    @Benchmark
+    public void decodeAndSerialize() throws IOException {
+        List<Member> members = new ArrayList<>(documents.size());
+        for (RawBsonDocument document : documents) {
+            members.add(codec.decode(document.asBsonReader(), decoderContext));
+        }
+        mapper.writeValue(OutputStream.nullOutputStream(), members);
+    }
+
+    @Benchmark
+    public void transcode() throws IOException {
+        try (JsonGenerator generator =
+                mapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            for (RawBsonDocument document : documents) {
+                transcoder.write(document, generator);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.health;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import jakarta.inject.Inject;
+import org.jboss.as.quickstarts.kitchensink.service.StartupTracker;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class StartupReadinessCheckTest {
+
+    @Inject StartupTracker startupTracker;
+
+    @Test
+    public void testReadyOnceStartupTasksComplete() throws InterruptedException {
+        for (int i = 0; i < 100 && !startupTracker.isComplete(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(startupTracker.isComplete());
+
+        RestAssured.given()
+                .when()
+                .get("/q/health/ready")
+                .then()
+                .statusCode(200)
+                .body("checks.find { it.name == 'startup-tasks' }.status", equalTo("UP"));
+    }
+
+    @Test
+    public void testPhaseDurationsAreRecorded() {
+        startupTracker.time("test.phase", () -> {});
+
+        assertTrue(startupTracker.phaseDurationsMillis().containsKey("test.phase"));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.jboss.logmanager.handlers.AsyncHandler;
+import org.jboss.logmanager.handlers.ConsoleHandler;
+import org.jboss.logmanager.handlers.DelayedHandler;
+import org.junit.jupiter.api.Test;
+
+public class RateLimitingLogFilterTest {
+
+    private LogRecord record(Level level, String loggerName, long millis) {
+        LogRecord record = new LogRecord(level, "message");
+        record.setLoggerName(loggerName);
+        record.setMillis(millis);
+        return record;
+    }
+
+    @Test
+    public void testDropsRecordsOverTheLimitAndCountsThem() {
+        RateLimitingLogFilter filter = new RateLimitingLogFilter("com.example=2");
+        long before = RateLimitingLogFilter.dropped();
+
+        assertTrue(filter.isLoggable(record(Level.INFO, "com.example.A", 1_000)));
+        assertTrue(filter.isLoggable(record(Level.INFO, "com.example.B", 1_100)));
+        assertFalse(filter.isLoggable(record(Level.INFO, "com.example.A", 1_200)));
+        assertEquals(before + 1, RateLimitingLogFilter.dropped());
+
+        // A new one-second window starts a new budget.
+        assertTrue(filter.isLoggable(record(Level.INFO, "com.example.A", 2_000)));
+    }
+
+    @Test
+    public void testWarningsAndUnmatchedCategoriesAreNeverDropped() {
+        RateLimitingLogFilter filter = new RateLimitingLogFilter("com.example=0");
+
+        assertTrue(filter.isLoggable(record(Level.WARNING, "com.example.A", 1_000)));
+        assertTrue(filter.isLoggable(record(Level.SEVERE, "com.example.A", 1_000)));
+        assertFalse(filter.isLoggable(record(Level.INFO, "com.example.A", 1_000)));
+        assertTrue(filter.isLoggable(record(Level.INFO, "com.examples.A", 1_000)));
+        assertTrue(filter.isLoggable(record(Level.INFO, "org.other.B", 1_000)));
+    }
+
+    @Test
+    public void testMostSpecificCategoryWins() {
+        RateLimitingLogFilter filter =
+                new RateLimitingLogFilter("com.example=0, com.example.hot=1");
+
+        assertTrue(filter.isLoggable(record(Level.INFO, "com.example.hot.Path", 1_000)));
+        assertFalse(filter.isLoggable(record(Level.INFO, "com.example.hot.Path", 1_000)));
+        assertFalse(filter.isLoggable(record(Level.INFO, "com.example.Other", 1_000)));
+    }
+
+    @Test
+    public void testInstalledInFrontOfTheAsyncQueue() {
+        ConsoleHandler console = new ConsoleHandler();
+        AsyncHandler async = new AsyncHandler(16);
+        async.addHandler(console);
+        DelayedHandler root = new DelayedHandler();
+        root.addHandler(async);
+        Handler filterOnly = new ConsoleHandler();
+        filterOnly.setFilter(record -> !record.getMessage().equals("secret"));
+
+        int installed =
+                ConsoleLogRateLimit.install(
+                        new Handler[] {root, filterOnly},
+                        new RateLimitingLogFilter("com.example=1"));
+
+        assertEquals(2, installed);
+        assertNull(console.getFilter());
+        assertTrue(async.isLoggable(record(Level.INFO, "com.example.A", 1_000)));
+        assertFalse(async.isLoggable(record(Level.INFO, "com.example.A", 1_000)));
+        // A filter already on the handler still applies.
+        assertFalse(filterOnly.isLoggable(new LogRecord(Level.INFO, "secret")));
+        assertTrue(filterOnly.getFilter() instanceof ConsoleLogRateLimit.Chained);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.mongodb.connection.ServerType;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+public class MongoCommandMetricsTest {
+
+    @Test
+    public void testCollectionNameIsTakenFromTheCommand() {
+        assertEquals(
+                "members",
+                MongoCommandMetrics.collectionName(
+                        "find", BsonDocument.parse("{find: 'members', filter: {email: 'a@b.c'}}")));
+        assertEquals(
+                "members",
+                MongoCommandMetrics.collectionName(
+                        "getMore",
+                        BsonDocument.parse("{getMore: NumberLong(42), collection: 'members'}")));
+        assertEquals(
+                "none",
+                MongoCommandMetrics.collectionName("ping", BsonDocument.parse("{ping: 1}")));
+    }
+
+    @Test
+    public void testReadsAreTaggedWithTheKindOfMemberServingThem() {
+        assertEquals("primary", MongoCommandMetrics.servedBy(ServerType.REPLICA_SET_PRIMARY));
+        assertEquals("secondary", MongoCommandMetrics.servedBy(ServerType.REPLICA_SET_SECONDARY));
+        assertEquals("other", MongoCommandMetrics.servedBy(ServerType.UNKNOWN));
+    }
+
+    @Test
+    public void testOperationScopesNest() {
+        assertEquals(MongoOperation.NONE, MongoOperation.current());
+        try (MongoOperation.Scope outer = MongoOperation.start("register")) {
+            try (MongoOperation.Scope inner = MongoOperation.start("findByEmail")) {
+                assertEquals("findByEmail", MongoOperation.current());
+            }
+            assertEquals("register", MongoOperation.current());
+        }
+        assertEquals(MongoOperation.NONE, MongoOperation.current());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.jboss.as.quickstarts.kitchensink.metrics.RegistrationMetrics.Outcome;
+import org.jboss.as.quickstarts.kitchensink.metrics.RegistrationMetrics.Phase;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class RegistrationMetricsTest {
+
+    @Inject RegistrationMetrics registrationMetrics;
+
+    @Inject MeterRegistry registry;
+
+    private long phaseCount(String phase, String outcome) {
+        return registry.get("members.registration.phase")
+                .tag("phase", phase)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    @Test
+    public void testNestedTimingsRecordOnceWithTheOuterOutcome() {
+        long validation = phaseCount("validation", "duplicate");
+        long emailCheck = phaseCount("email-check", "duplicate");
+        long persist = phaseCount("persist", "duplicate");
+
+        RegistrationMetrics.Timing outer = registrationMetrics.begin();
+        outer.start(Phase.VALIDATION);
+        outer.end();
+        RegistrationMetrics.Timing inner = registrationMetrics.begin();
+        inner.start(Phase.EMAIL_CHECK);
+        inner.finish(Outcome.ERROR);
+        assertEquals(emailCheck, phaseCount("email-check", "duplicate"));
+        outer.finish(Outcome.DUPLICATE);
+
+        assertEquals(validation + 1, phaseCount("validation", "duplicate"));
+        assertEquals(emailCheck + 1, phaseCount("email-check", "duplicate"));
+        assertEquals(persist, phaseCount("persist", "duplicate"));
+    }
+
+    @Test
+    public void testTimingIsReleasedAfterFinish() {
+        long created =
+                registry.get("members.registration.duration")
+                        .tag("outcome", "created")
+                        .timer()
+                        .count();
+
+        registrationMetrics.begin().finish(Outcome.CREATED);
+        registrationMetrics.begin().finish(Outcome.CREATED);
+
+        assertEquals(
+                created + 2,
+                registry.get("members.registration.duration")
+                        .tag("outcome", "created")
+                        .timer()
+                        .count());
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.validation.Validator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/** Checks that {@link MemberValidator} agrees with Hibernate Validator on every input. */
+@QuarkusTest
+public class MemberValidatorTest {
+
+    private static final String NAME = "John Smith";
+    private static final String EMAIL = "john.smith@mailinator.com";
+    private static final String PHONE = "2125551212";
+
+    @Inject Validator validator;
+
+    private void assertParity(String name, String email, String phoneNumber) {
+        Member member = new Member(name, email, phoneNumber);
+        Set<MemberValidator.Violation> expected =
+                validator.validate(member).stream()
+                        .map(
+                                v ->
+                                        new MemberValidator.Violation(
+                                                v.getPropertyPath().toString(), v.getMessage()))
+                        .collect(Collectors.toSet());
+        Set<MemberValidator.Violation> actual = Set.copyOf(MemberValidator.validate(member));
+        assertEquals(
+                expected, actual, "name=" + name + ", email=" + email + ", phone=" + phoneNumber);
+    }
+
+    @Test
+    public void testValidMemberHasNoViolations() {
+        assertTrue(MemberValidator.isValid(new Member(NAME, EMAIL, PHONE)));
+        assertParity(NAME, EMAIL, PHONE);
+    }
+
+    @Test
+    public void testNameParity() {
+        for (String name :
+                Arrays.asList(
+                        null,
+                        "",
+                        "J",
+                        "J0hn",
+                        "Zoë Ångström",
+                        "Ｊｏｈｎ １２",
+                        "a".repeat(25),
+                        "a".repeat(26),
+                        "1".repeat(26),
+                        "line\nbreak")) {
+            assertParity(name, EMAIL, PHONE);
+        }
+    }
+
+    @Test
+    public void testEmailParity() {
+        for (String email :
+                Arrays.asList(
+                        null,
+                        "",
+                        "plainaddress",
+                        "@",
+                        "@example.com",
+                        "a@",
+                        "a@b",
+                        "A.B-C+tag@Example.COM",
+                        ".a@example.com",
+                        "a.@example.com",
+                        "a..b@example.com",
+                        "a b@example.com",
+                        "a@exa mple.com",
+                        "a@-example.com",
+                        "a@example-.com",
+                        "a@exa--mple.com",
+                        "a@exa_mple.com",
+                        "a@example.com.",
+                        "a@.example.com",
+                        "a@example..com",
+                        "a@b@example.com",
+                        "\"quoted name\"@example.com",
+                        "\"a@b\"@example.com",
+                        "\"unterminated@example.com",
+                        "a@[127.0.0.1]",
+                        "a@[IPv6:2001:db8::1]",
+                        "a@[not an ip]",
+                        "üser@example.com",
+                        "user@exämple.com",
+                        "user@例え.jp",
+                        "a".repeat(64) + "@example.com",
+                        "a".repeat(65) + "@example.com",
+                        "a@" + "b".repeat(63) + ".com",
+                        "a@" + "b".repeat(64) + ".com",
+                        "a@" + ("b".repeat(60) + ".").repeat(4) + "com",
+                        "a@" + ("b".repeat(60) + ".").repeat(5) + "com")) {
+            assertParity(NAME, email, PHONE);
+        }
+    }
+
+    @Test
+    public void testPhoneNumberParity() {
+        for (String phone :
+                Arrays.asList(
+                        null,
+                        "",
+                        "123456789",
+                        "1234567890",
+                        "123456789012",
+                        "1234567890123",
+                        "0000000000000",
+                        "000000000001234",
+                        "12345abcde",
+                        "+123456789",
+                        "-123456789",
+                        "12345678.0",
+                        "1234567e10",
+                        "12345.6789",
+                        "１２３４５６７８９０",
+                        " 1234567890")) {
+            assertParity(NAME, EMAIL, phone);
+        }
+    }
+
+    @Test
+    public void testRandomInputParity() {
+        Random random = new Random(42);
+        List<String> alphabet =
+                List.of("a", "Z", "0", "9", ".", "@", "-", "_", "+", "\"", " ", "[", "]", "ä", "e");
+        for (int i = 0; i < 2_000; i++) {
+            assertParity(
+                    randomString(random, alphabet, 30),
+                    randomString(random, alphabet, 30),
+                    randomString(random, alphabet, 14));
+        }
+    }
+
+    private String randomString(Random random, List<String> alphabet, int maxLength) {
+        StringBuilder value = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            value.append(alphabet.get(random.nextInt(alphabet.size())));
+        }
+        return value.toString();
+    }
+}
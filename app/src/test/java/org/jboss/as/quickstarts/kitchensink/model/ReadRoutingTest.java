@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandSucceededEvent;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.jboss.as.quickstarts.kitchensink.metrics.MongoOperation;
+import org.junit.jupiter.api.Test;
+
+public class ReadRoutingTest {
+
+    @Test
+    public void testOperationsAreRoutedByName() {
+        ReadRouting routing = new ReadRouting();
+        routing.operations = List.of("listAll=secondaryPreferred", " cacheCatchUp = nearest");
+        routing.maxStaleness = Duration.ofSeconds(120);
+        routing.init();
+
+        try (MongoOperation.Scope scope = MongoOperation.start("listAll")) {
+            assertEquals(
+                    ReadPreference.secondaryPreferred(120, TimeUnit.SECONDS), routing.current());
+            try (ReadRouting.Scope override = ReadRouting.prefer(ReadPreference.primary())) {
+                assertEquals(ReadPreference.primary(), routing.current());
+            }
+            assertEquals(
+                    ReadPreference.secondaryPreferred(120, TimeUnit.SECONDS), routing.current());
+        }
+        try (MongoOperation.Scope scope = MongoOperation.start("findByEmail")) {
+            assertEquals(ReadPreference.primary(), routing.current());
+        }
+        assertEquals(ReadPreference.primary(), routing.readPreference("primary"));
+    }
+
+    @Test
+    public void testCausalReadsKeepTheLatestWriteTime() {
+        CausalReads causalReads = new CausalReads();
+        assertNull(causalReads.latestWrite());
+
+        causalReads.commandSucceeded(reply("insert", "{ok: 1, operationTime: Timestamp(100, 2)}"));
+        causalReads.commandSucceeded(reply("insert", "{ok: 1, operationTime: Timestamp(100, 1)}"));
+        causalReads.commandSucceeded(reply("find", "{ok: 1, operationTime: Timestamp(200, 1)}"));
+
+        assertEquals(new BsonTimestamp(100, 2), causalReads.latestWrite());
+        assertEquals("100.2", CausalReads.format(causalReads.latestWrite()));
+        assertEquals(new BsonTimestamp(100, 2), CausalReads.parse("100.2"));
+        assertNull(CausalReads.parse("100"));
+        assertNull(CausalReads.parse("a.b"));
+    }
+
+    private static CommandSucceededEvent reply(String command, String response) {
+        return new CommandSucceededEvent(
+                null,
+                1L,
+                1,
+                new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress())),
+                "testdb",
+                command,
+                BsonDocument.parse(response),
+                1_000L);
+    }
+}
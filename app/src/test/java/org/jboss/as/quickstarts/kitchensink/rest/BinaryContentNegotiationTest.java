@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import java.util.List;
+import java.util.Optional;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+@QuarkusTest
+public class BinaryContentNegotiationTest {
+
+    @InjectMock MemberRepository memberRepository;
+    @InjectMock MemberRegistration memberRegistration;
+
+    private Member john;
+
+    @BeforeEach
+    public void setUp() {
+        john = new Member("John Doe", "john.doe@example.com", "1234567890");
+        john.setId(1L);
+    }
+
+    @Test
+    public void testListMembersAsCbor() throws Exception {
+        when(memberRepository.listAll(ArgumentMatchers.any(Sort.class))).thenReturn(List.of(john));
+
+        Response response =
+                RestAssured.given()
+                        .accept(BinaryMediaTypes.APPLICATION_CBOR)
+                        .get("/rest/app/api/members");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.contentType().startsWith(BinaryMediaTypes.APPLICATION_CBOR));
+        List<Member> members =
+                new ObjectMapper(new CBORFactory())
+                        .readValue(response.asByteArray(), new TypeReference<List<Member>>() {});
+        assertEquals(1, members.size());
+        assertEquals(1L, members.get(0).getId());
+        assertEquals("john.doe@example.com", members.get(0).email);
+    }
+
+    @Test
+    public void testLookupMemberAsSmile() throws Exception {
+        when(memberRepository.findByIdOptional(1L)).thenReturn(Optional.of(john));
+
+        Response response =
+                RestAssured.given()
+                        .accept(BinaryMediaTypes.APPLICATION_SMILE)
+                        .get("/rest/app/api/members/1");
+
+        assertEquals(200, response.statusCode());
+        Member member =
+                new ObjectMapper(new SmileFactory())
+                        .readValue(response.asByteArray(), Member.class);
+        assertEquals("John Doe", member.name);
+    }
+
+    @Test
+    public void testCreateMemberWithMessagePack() throws Exception {
+        doAnswer(
+                        invocation -> {
+                            invocation.<Member>getArgument(0).setId(7L);
+                            return null;
+                        })
+                .when(memberRegistration)
+                .register(ArgumentMatchers.any(Member.class));
+        ObjectMapper msgpack = new ObjectMapper(new MessagePackFactory());
+        byte[] body =
+                msgpack.writeValueAsBytes(new Member("Jane Doe", "jane@example.com", "0987654321"));
+
+        Response response =
+                RestAssured.given()
+                        .contentType(BinaryMediaTypes.APPLICATION_MSGPACK)
+                        .accept(BinaryMediaTypes.APPLICATION_MSGPACK)
+                        .body(body)
+                        .post("/rest/app/api/members");
+
+        assertEquals(201, response.statusCode());
+        Member created = msgpack.readValue(response.asByteArray(), Member.class);
+        assertEquals(7L, created.getId());
+        assertEquals("jane@example.com", created.email);
+    }
+
+    @Test
+    public void testJsonStaysTheDefault() {
+        when(memberRepository.listAll(ArgumentMatchers.any(Sort.class))).thenReturn(List.of(john));
+
+        Response response = RestAssured.given().accept("*/*").get("/rest/app/api/members");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.contentType().startsWith("application/json"));
+    }
+}
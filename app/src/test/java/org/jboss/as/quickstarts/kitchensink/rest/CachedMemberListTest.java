@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.quarkus.panache.common.Sort;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.restassured.RestAssured;
+import java.util.List;
+import java.util.Optional;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.service.MemberCache;
+import org.jboss.as.quickstarts.kitchensink.service.MemberCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+
+@QuarkusTest
+public class CachedMemberListTest {
+
+    @InjectMock MemberRepository memberRepository;
+
+    @InjectMock MemberCache memberCache;
+
+    @InjectMock MemberCounter memberCounter;
+
+    // Ids no other test uses, as the member JSON cache keeps what it serialized by id.
+    private static Member member(long id, String name) {
+        Member member = new Member(name, "cached" + id + "@example.com", "1234567890");
+        member.setId(id);
+        return member;
+    }
+
+    @BeforeEach
+    public void setup() {
+        when(memberCache.listByName())
+                .thenReturn(Optional.of(List.of(member(9001L, "Ann"), member(9002L, "Bob"))));
+        when(memberRepository.listAll(ArgumentMatchers.any(Sort.class)))
+                .thenReturn(
+                        List.of(member(9001L, "Ann"), member(9003L, "Ben"), member(9002L, "Bob")));
+    }
+
+    @Test
+    public void testCompleteCacheServesTheList() {
+        when(memberCounter.get()).thenReturn(2L);
+        RestAssured.given()
+                .get("/rest/app/api/members")
+                .then()
+                .statusCode(200)
+                .body("name", contains("Ann", "Bob"));
+        verify(memberCache, times(1)).listByName();
+        verify(memberRepository, never()).listAll(ArgumentMatchers.any(Sort.class));
+    }
+
+    @Test
+    public void testCacheMissingMembersFallsBackToMongoDb() {
+        when(memberCounter.get()).thenReturn(3L);
+        RestAssured.given()
+                .get("/rest/app/api/members")
+                .then()
+                .statusCode(200)
+                .body("name", contains("Ann", "Ben", "Bob"));
+    }
+
+    @Test
+    public void testReadAfterWriteFallsBackToMongoDb() {
+        when(memberCounter.get()).thenReturn(2L);
+        RestAssured.given()
+                .header(
+                        ReadYourWritesFilter.READ_AFTER_HEADER,
+                        System.currentTimeMillis() / 1000 + ".1")
+                .get("/rest/app/api/members")
+                .then()
+                .statusCode(200)
+                .body("name", contains("Ann", "Ben", "Bob"));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.restassured.RestAssured;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.service.MemberIdGenerator;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class MemberChangesTest {
+
+    @InjectMock MemberRepository memberRepository;
+
+    @Inject MemberIdGenerator memberIds;
+
+    private static Member member(long id) {
+        Member member = new Member("Synced " + id, "synced" + id + "@example.com", "1234567890");
+        member.setId(id);
+        return member;
+    }
+
+    @Test
+    public void testTokenRoundTrip() {
+        assertEquals(MemberChanges.START, MemberChanges.lastId(MemberChanges.token(-1L)));
+        assertEquals(1234567L, MemberChanges.lastId(MemberChanges.token(1234567L)));
+        assertThrows(IllegalArgumentException.class, () -> MemberChanges.lastId("1234567"));
+    }
+
+    @Test
+    public void testPagesThroughMembersAfterTheToken() {
+        when(memberRepository.listAfter(MemberChanges.START, 3))
+                .thenReturn(List.of(member(1L), member(2L), member(5L)));
+        RestAssured.given()
+                .queryParam("limit", 2)
+                .get("/rest/app/api/members/changes")
+                .then()
+                .statusCode(200)
+                .body("members.id", contains(1, 2))
+                .body("more", equalTo(true))
+                .body("next", equalTo(MemberChanges.token(2L)));
+
+        when(memberRepository.listAfter(2L, 3)).thenReturn(List.of(member(5L)));
+        RestAssured.given()
+                .queryParam("since", MemberChanges.token(2L))
+                .queryParam("limit", 2)
+                .get("/rest/app/api/members/changes")
+                .then()
+                .statusCode(200)
+                .body("members.id", contains(5))
+                .body("more", equalTo(false))
+                .body("next", equalTo(MemberChanges.token(5L)));
+    }
+
+    @Test
+    public void testCaughtUpClientKeepsItsToken() {
+        when(memberRepository.listAfter(5L, 1001)).thenReturn(List.of());
+        RestAssured.given()
+                .queryParam("since", MemberChanges.token(5L))
+                .get("/rest/app/api/members/changes")
+                .then()
+                .statusCode(200)
+                .body("members", empty())
+                .body("more", equalTo(false))
+                .body("next", equalTo(MemberChanges.token(5L)));
+        verify(memberRepository).listAfter(5L, 1001);
+    }
+
+    @Test
+    public void testTokenStopsBeforeMembersStillBeingWritten() {
+        long writing = memberIds.reserve();
+        try {
+            when(memberRepository.listAfter(writing - 2, 1001))
+                    .thenReturn(List.of(member(writing - 1), member(writing + 1)));
+            RestAssured.given()
+                    .queryParam("since", MemberChanges.token(writing - 2))
+                    .get("/rest/app/api/members/changes")
+                    .then()
+                    .statusCode(200)
+                    .body("members.id", contains((int) (writing - 1)))
+                    .body("more", equalTo(false))
+                    .body("next", equalTo(MemberChanges.token(writing - 1)));
+        } finally {
+            memberIds.release(writing);
+        }
+    }
+
+    @Test
+    public void testInvalidTokenIsRejected() {
+        RestAssured.given()
+                .queryParam("since", "not-a-token")
+                .get("/rest/app/api/members/changes")
+                .then()
+                .statusCode(400);
+    }
+}
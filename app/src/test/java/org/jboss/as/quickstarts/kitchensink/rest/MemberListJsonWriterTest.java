@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.restassured.RestAssured;
+import jakarta.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.service.SyntheticMemberGenerator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+
+@QuarkusTest
+public class MemberListJsonWriterTest {
+
+    @InjectMock MemberRepository memberRepository;
+
+    @Inject ObjectMapper objectMapper;
+
+    @Inject MemberListJsonWriter writer;
+
+    @Inject MemberJsonCache jsonCache;
+
+    @Test
+    public void testCachedBytesMatchJacksonOutput() throws Exception {
+        List<Member> members = members();
+
+        // Twice: once filling the cache, once served from it.
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.write(members, out);
+            assertArrayEquals(objectMapper.writeValueAsBytes(members), out.toByteArray());
+        }
+        assertSame(jsonCache.get(members.get(0)), jsonCache.get(members.get(0)));
+    }
+
+    @Test
+    public void testListResponseIsByteIdenticalToJackson() throws Exception {
+        List<Member> members = members();
+        when(memberRepository.listAll(ArgumentMatchers.any(Sort.class))).thenReturn(members);
+
+        byte[] body =
+                RestAssured.given()
+                        .accept("application/json")
+                        .get("/rest/app/api/members")
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .asByteArray();
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(members), body);
+    }
+
+    /** Synthetic members plus ones that need escaping, non-ASCII text, nulls and no id. */
+    private static List<Member> members() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Member member = SyntheticMemberGenerator.create(i);
+            member.setId(10_000L + i);
+            members.add(member);
+        }
+        Member quoted = new Member("Zoë \"Q\" O'Brien\\", "zoe@example.com", "1234567890");
+        quoted.setId(20_000L);
+        members.add(quoted);
+        Member unicode = new Member("Jürgen 😀  ", "j@example.com", null);
+        unicode.setId(20_001L);
+        members.add(unicode);
+        members.add(new Member("No Id", "noid@example.com", "1234567890"));
+        return members;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.LongStream;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.service.MemberIdGenerator;
+import org.jboss.resteasy.reactive.server.jaxrs.SseImpl;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class MemberStreamTest {
+
+    @InjectMock MemberRepository memberRepository;
+
+    @Inject MemberStream memberStream;
+
+    @Inject MemberIdGenerator memberIds;
+
+    @Inject Event<Member> memberEvents;
+
+    @Inject MeterRegistry registry;
+
+    @TestHTTPResource("/rest/app/api/members/stream")
+    URI streamUri;
+
+    private static Member member(long id) {
+        Member member =
+                new Member("Streamed " + id, "streamed" + id + "@example.com", "1234567890");
+        member.setId(id);
+        return member;
+    }
+
+    /** Records what is sent; sends complete only once {@code completeSends} is set. */
+    private static final class RecordingSink implements SseEventSink {
+
+        final List<OutboundSseEvent> events = new ArrayList<>();
+        final boolean completeSends;
+        volatile boolean closed;
+
+        RecordingSink(boolean completeSends) {
+            this.completeSends = completeSends;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public synchronized CompletionStage<?> send(OutboundSseEvent event) {
+            events.add(event);
+            return completeSends
+                    ? CompletableFuture.completedFuture(null)
+                    : new CompletableFuture<>();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        synchronized List<String> ids() {
+            return events.stream().map(OutboundSseEvent::getId).toList();
+        }
+    }
+
+    @Test
+    public void testStreamsRegisteredMembersOverHttp() throws Exception {
+        HttpResponse<InputStream> response =
+                HttpClient.newHttpClient()
+                        .send(
+                                HttpRequest.newBuilder(streamUri).build(),
+                                HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        assertTrue(
+                response.headers()
+                        .firstValue("Content-Type")
+                        .orElse("")
+                        .startsWith("text/event-stream"));
+
+        try (BufferedReader lines =
+                new BufferedReader(
+                        new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            memberEvents.fire(member(42L));
+            List<String> event =
+                    assertTimeoutPreemptively(
+                            Duration.ofSeconds(10),
+                            () -> {
+                                List<String> read = new ArrayList<>();
+                                for (String line = lines.readLine();
+                                        line != null && !line.startsWith("data:");
+                                        line = lines.readLine()) {
+                                    read.add(line);
+                                }
+                                return read;
+                            });
+            assertTrue(event.contains("id:42"), event.toString());
+            assertTrue(event.contains("event:member"), event.toString());
+        }
+    }
+
+    @Test
+    public void testResumesAfterLastEventIdWithoutDuplicates() {
+        when(memberRepository.listAfter(3L, 1001)).thenReturn(List.of(member(4L), member(5L)));
+        RecordingSink sink = new RecordingSink(true);
+
+        memberStream.subscribe(sink, SseImpl.INSTANCE, 3L);
+        memberStream.onMemberRegistered(member(5L));
+        memberStream.onMemberRegistered(member(6L));
+
+        assertEquals(List.of("4", "5", "6"), sink.ids());
+        assertEquals("member", sink.events.get(0).getName());
+        sink.close();
+    }
+
+    @Test
+    public void testDoesNotResumePastMembersStillBeingWritten() {
+        long writing = memberIds.reserve();
+        try {
+            when(memberRepository.listAfter(writing - 1, 1001))
+                    .thenReturn(List.of(member(writing + 1)));
+            RecordingSink sink = new RecordingSink(true);
+
+            memberStream.subscribe(sink, SseImpl.INSTANCE, writing - 1);
+            memberStream.onMemberRegistered(member(writing + 2));
+
+            // Both are delivered, but a reconnect resumes before the member still being written.
+            String before = String.valueOf(writing - 1);
+            assertEquals(List.of(before, before), sink.ids());
+            sink.close();
+        } finally {
+            memberIds.release(writing);
+        }
+    }
+
+    @Test
+    public void testAsksToReloadWhenTooManyWereMissed() {
+        when(memberRepository.listAfter(anyLong(), anyInt()))
+                .thenReturn(
+                        LongStream.rangeClosed(1, 1001)
+                                .mapToObj(MemberStreamTest::member)
+                                .toList());
+        when(memberRepository.maxId()).thenReturn(5000L);
+        RecordingSink sink = new RecordingSink(true);
+
+        memberStream.subscribe(sink, SseImpl.INSTANCE, 0L);
+
+        assertEquals(List.of("5000"), sink.ids());
+        assertEquals("reset", sink.events.get(0).getName());
+        sink.close();
+    }
+
+    @Test
+    public void testSlowSubscriberIsDisconnected() {
+        double droppedBefore = registry.get("members.stream.dropped").counter().count();
+        RecordingSink slow = new RecordingSink(false);
+        memberStream.subscribe(slow, SseImpl.INSTANCE, null);
+
+        // One send in flight plus a full buffer, then one more.
+        for (long id = 1; id <= 258; id++) {
+            memberStream.onMemberRegistered(member(id));
+        }
+
+        assertTrue(slow.isClosed());
+        assertEquals(1, slow.ids().size());
+        assertEquals(droppedBefore + 1, registry.get("members.stream.dropped").counter().count());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.util.WarmUpTraffic;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+
+@QuarkusTest
+public class RateLimitFilterTest {
+
+    @InjectMock MemberRepository memberRepository;
+
+    @Inject ClientRateLimits rateLimits;
+
+    @Inject MeterRegistry registry;
+
+    @Test
+    public void testClientOverItsBurstIsThrottled() {
+        when(memberRepository.listAll(ArgumentMatchers.any(Sort.class)))
+                .thenReturn(List.of(new Member("John Doe", "john.doe@example.com", "1234567890")));
+
+        Response first = listMembers("burst-client");
+        assertEquals(200, first.statusCode());
+        assertEquals("20", first.header("RateLimit-Limit"));
+        assertEquals("19", first.header("RateLimit-Remaining"));
+
+        Response throttled = null;
+        for (int i = 0; i < 40 && throttled == null; i++) {
+            Response response = listMembers("burst-client");
+            if (response.statusCode() == 429) {
+                throttled = response;
+            }
+        }
+        assertNotNull(throttled);
+        assertEquals("0", throttled.header("RateLimit-Remaining"));
+        assertEquals("1", throttled.header("Retry-After"));
+
+        // Other clients have buckets of their own.
+        assertEquals(200, listMembers("another-client").statusCode());
+    }
+
+    @Test
+    public void testWarmUpRequestsAreNotLimitedAndTaggedApart() {
+        when(memberRepository.listAll(ArgumentMatchers.any(Sort.class)))
+                .thenReturn(List.of(new Member("John Doe", "john.doe@example.com", "1234567890")));
+
+        for (int i = 0; i < 40; i++) {
+            Response response =
+                    RestAssured.given()
+                            .header(WarmUpTraffic.HEADER, WarmUpTraffic.token())
+                            .get("/rest/app/api/members");
+            assertEquals(200, response.statusCode());
+            assertNull(response.header("RateLimit-Limit"));
+        }
+        // A made-up token is an ordinary client request.
+        assertEquals(
+                "20",
+                RestAssured.given()
+                        .header(WarmUpTraffic.HEADER, "made-up")
+                        .header("X-API-Key", "another-client")
+                        .get("/rest/app/api/members")
+                        .header("RateLimit-Limit"));
+
+        assertTrue(
+                registry.get("http.server.requests").tag("traffic", "warm-up").timer().count()
+                        >= 40);
+        assertTrue(
+                registry.get("http.server.requests").tag("traffic", "client").timer().count() > 0);
+    }
+
+    @Test
+    public void testOnlyConfiguredApiKeysGetBucketsOfTheirOwn() {
+        assertTrue(rateLimits.isKnownApiKey("burst-client"));
+        assertFalse(rateLimits.isKnownApiKey("made-up-key"));
+        assertFalse(rateLimits.isKnownApiKey(""));
+        assertFalse(rateLimits.isKnownApiKey(null));
+    }
+
+    @Test
+    public void testRoutesAreParsedAndMostSpecificWins() {
+        List<ClientRateLimits.Route> routes =
+                ClientRateLimits.parse("GET /app/api=10/20, GET /app/api/members=0.5/3");
+
+        assertEquals("/app/api/members", routes.get(0).path());
+        assertEquals(3, routes.get(0).limiter().burst());
+        assertEquals(20, routes.get(1).limiter().burst());
+        assertTrue(routes.get(0).matches("GET", "/app/api/members/5"));
+        assertTrue(routes.get(1).matches("GET", "/app/api"));
+        assertNull(
+                routes.stream()
+                        .filter(r -> r.matches("GET", "/app/apis"))
+                        .findFirst()
+                        .orElse(null));
+        assertNull(
+                routes.stream()
+                        .filter(r -> r.matches("POST", "/app/api/members"))
+                        .findFirst()
+                        .orElse(null));
+        assertThrows(IllegalArgumentException.class, () -> ClientRateLimits.parse("GET=5"));
+    }
+
+    private static Response listMembers(String apiKey) {
+        return RestAssured.given().header("X-API-Key", apiKey).get("/rest/app/api/members");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+import io.quarkus.panache.common.Sort;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.restassured.RestAssured;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.bson.BsonTimestamp;
+import org.jboss.as.quickstarts.kitchensink.model.CausalReads;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+
+@QuarkusTest
+public class ReadYourWritesFilterTest {
+
+    @InjectMock MemberRepository memberRepository;
+
+    @Test
+    public void testRecentReadAfterTimeReachesTheRepository() {
+        AtomicReference<BsonTimestamp> seen = captureReadAfter();
+        long now = System.currentTimeMillis() / 1000;
+
+        list(ReadYourWritesFilter.READ_AFTER_HEADER, now + ".3");
+        assertEquals(new BsonTimestamp((int) now, 3), seen.get());
+
+        RestAssured.given()
+                .cookie(ReadYourWritesFilter.READ_AFTER_COOKIE, now + ".4")
+                .get("/rest/app/api/members")
+                .then()
+                .statusCode(200);
+        assertEquals(new BsonTimestamp((int) now, 4), seen.get());
+    }
+
+    @Test
+    public void testStaleFutureOrInvalidReadAfterTimeIsIgnored() {
+        AtomicReference<BsonTimestamp> seen = captureReadAfter();
+        long hourAgo = System.currentTimeMillis() / 1000 - 3600;
+        long hourAhead = System.currentTimeMillis() / 1000 + 3600;
+
+        list(ReadYourWritesFilter.READ_AFTER_HEADER, hourAgo + ".1");
+        assertNull(seen.get());
+        list(ReadYourWritesFilter.READ_AFTER_HEADER, hourAhead + ".1");
+        assertNull(seen.get());
+        list(ReadYourWritesFilter.READ_AFTER_HEADER, "not-a-time");
+        assertNull(seen.get());
+    }
+
+    private AtomicReference<BsonTimestamp> captureReadAfter() {
+        AtomicReference<BsonTimestamp> seen = new AtomicReference<>();
+        Member member = new Member("Causal Reader", "causal@example.com", "1234567890");
+        member.setId(1L);
+        when(memberRepository.listAll(ArgumentMatchers.any(Sort.class)))
+                .thenAnswer(
+                        invocation -> {
+                            seen.set(CausalReads.current());
+                            return List.of(member);
+                        });
+        return seen;
+    }
+
+    private static void list(String header, String value) {
+        RestAssured.given()
+                .header(header, value)
+                .get("/rest/app/api/members")
+                .then()
+                .statusCode(200);
+    }
+}
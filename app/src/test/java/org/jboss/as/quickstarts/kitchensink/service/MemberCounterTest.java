@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import jakarta.inject.Inject;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class MemberCounterTest {
+
+    @InjectMock MemberRepository memberRepository;
+
+    @Inject MemberCounter memberCounter;
+
+    @Inject MeterRegistry registry;
+
+    @Test
+    public void testCountIsMaintainedWithoutQueryingAndReconciled() {
+        when(memberRepository.count()).thenReturn(5L);
+        memberCounter.reconcile();
+        assertEquals(5L, memberCounter.get());
+
+        memberCounter.seed(100L); // already known, so ignored
+        memberCounter.onMemberRegistered(new Member());
+        memberCounter.onMemberRegistered(new Member());
+        assertEquals(7L, memberCounter.get());
+        verify(memberRepository, times(1)).count();
+
+        double driftBefore = registry.get("members.count.drift").counter().count();
+        when(memberRepository.count()).thenReturn(9L);
+        memberCounter.reconcile();
+        assertEquals(9L, memberCounter.get());
+        assertEquals(driftBefore + 1, registry.get("members.count.drift").counter().count());
+        assertEquals(9.0, registry.get("members.count").gauge().value());
+    }
+
+    @Test
+    public void testCountOverlappingARegistrationIsNotKept() {
+        when(memberRepository.count()).thenReturn(5L);
+        memberCounter.reconcile();
+        assertEquals(5L, memberCounter.get());
+
+        // Inserted before the count, its event fires after it.
+        AtomicReference<MemberCounter.Write> racing = new AtomicReference<>();
+        when(memberRepository.count())
+                .thenAnswer(
+                        invocation -> {
+                            racing.set(memberCounter.startWrite());
+                            return 6L;
+                        });
+        memberCounter.reconcile();
+        memberCounter.onMemberRegistered(new Member());
+        racing.get().close();
+        assertEquals(6L, memberCounter.get());
+
+        // Still between insert and event when the reconciliation starts.
+        MemberCounter.Write write = memberCounter.startWrite();
+        doReturn(7L).when(memberRepository).count();
+        memberCounter.reconcile();
+        memberCounter.onMemberRegistered(new Member());
+        write.close();
+        assertEquals(7L, memberCounter.get());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class MemberLookupServiceTest {
+
+    private static final long HOT_ID = 4242L;
+    private static final int THREADS = 16;
+    private static final int LOOKUPS_PER_THREAD = 50;
+
+    @InjectMock MemberRepository memberRepository;
+
+    @Inject MemberLookupService memberLookup;
+
+    @Inject MeterRegistry registry;
+
+    @Test
+    public void testConcurrentLookupsOfAHotIdShareQueries() throws Exception {
+        Member member = new Member("Hot Member", "hot@example.com", "1234567890");
+        member.setId(HOT_ID);
+        AtomicInteger queries = new AtomicInteger();
+        when(memberRepository.findByIdOptional(HOT_ID))
+                .thenAnswer(
+                        invocation -> {
+                            queries.incrementAndGet();
+                            Thread.sleep(2); // a MongoDB round trip
+                            return Optional.of(member);
+                        });
+        double coalescedBefore = coalesced();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> found = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                found.add(
+                        pool.submit(
+                                () -> {
+                                    start.await();
+                                    int hits = 0;
+                                    for (int i = 0; i < LOOKUPS_PER_THREAD; i++) {
+                                        hits += memberLookup.findById(HOT_ID).isPresent() ? 1 : 0;
+                                    }
+                                    return hits;
+                                }));
+            }
+            start.countDown();
+            int hits = 0;
+            for (Future<Integer> f : found) {
+                hits += f.get(30, TimeUnit.SECONDS);
+            }
+
+            int lookups = THREADS * LOOKUPS_PER_THREAD;
+            assertEquals(lookups, hits);
+            assertTrue(
+                    queries.get() < lookups / 2,
+                    queries.get() + " queries for " + lookups + " lookups");
+            assertEquals(lookups - queries.get(), coalesced() - coalescedBefore, 0.0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMissingMemberIsNotFound() {
+        when(memberRepository.findByIdOptional(7L)).thenReturn(Optional.empty());
+
+        assertTrue(memberLookup.findById(7L).isEmpty());
+        assertTrue(memberLookup.findById(null).isEmpty());
+    }
+
+    private double coalesced() {
+        return registry.get("members.lookup.coalesced").counter().count();
+    }
+}
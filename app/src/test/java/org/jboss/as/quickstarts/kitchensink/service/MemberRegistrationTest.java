@@ -0,0 +1,136 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.BsonDocument;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration.EmailAlreadyExistsException;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class MemberRegistrationTest {
+
+    private static final String EMAIL = "taken@example.com";
+    private static final int THREADS = 8;
+
+    @InjectMock MemberRepository memberRepository;
+
+    @Inject MemberRegistration memberRegistration;
+
+    @Inject MeterRegistry registry;
+
+    @Test
+    public void testConcurrentDuplicatesShareTheLeadersOutcome() throws Exception {
+        CountDownLatch checking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger checks = new AtomicInteger();
+        when(memberRepository.findByEmail(EMAIL))
+                .thenAnswer(
+                        invocation -> {
+                            checks.incrementAndGet();
+                            checking.countDown();
+                            release.await(10, TimeUnit.SECONDS);
+                            return Optional.of(new Member("Taken", EMAIL, "1234567890"));
+                        });
+        double coalescedBefore = coalesced();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> registrations = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                registrations.add(
+                        pool.submit(
+                                () -> {
+                                    memberRegistration.register(
+                                            new Member("Duplicate", EMAIL, "1234567890"));
+                                    return null;
+                                }));
+            }
+            assertTrue(checking.await(10, TimeUnit.SECONDS));
+            Thread.sleep(200); // let the other registrations join the one in flight
+            release.countDown();
+            for (Future<?> registration : registrations) {
+                ExecutionException e =
+                        assertThrows(
+                                ExecutionException.class,
+                                () -> registration.get(30, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof EmailAlreadyExistsException, e.toString());
+            }
+
+            assertTrue(checks.get() < THREADS, checks.get() + " checks for " + THREADS);
+            assertEquals(THREADS - checks.get(), coalesced() - coalescedBefore, 0.0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOnlyTheEmailIndexMeansTheEmailIsTaken() {
+        assertTrue(MemberRegistration.isDuplicateEmail(duplicateKey("email_1", "email")));
+        assertFalse(MemberRegistration.isDuplicateEmail(duplicateKey("_id_", "_id")));
+
+        Member member = new Member("Unlucky", "unlucky@example.com", "1234567890");
+        when(memberRepository.findByEmail(member.email)).thenReturn(Optional.empty());
+        doThrow(new MongoWriteException(duplicateKey("_id_", "_id"), new ServerAddress()))
+                .when(memberRepository)
+                .persist(member);
+        assertThrows(MongoWriteException.class, () -> memberRegistration.register(member));
+    }
+
+    private static WriteError duplicateKey(String index, String field) {
+        return new WriteError(
+                11000,
+                "E11000 duplicate key error collection: kitchensink.members index: "
+                        + index
+                        + " dup key: { "
+                        + field
+                        + ": 1 }",
+                new BsonDocument());
+    }
+
+    private double coalesced() {
+        // Registered when the bean is first used.
+        Counter counter = registry.find("members.registration.coalesced").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MemberSnapshotFileTest {
+
+    @TempDir Path dir;
+
+    private Member createMember(Long id, String name, String email, String phone) {
+        Member member = new Member(name, email, phone);
+        member.setId(id);
+        return member;
+    }
+
+    @Test
+    public void testWriteAndReadRoundTrip() throws IOException {
+        Path path = dir.resolve("members.snapshot");
+        List<Member> members =
+                List.of(
+                        createMember(0L, "John Smith", "john.smith@mailinator.com", "2125551212"),
+                        createMember(1L, "Zoë Ångström", "zoe@example.com", "0987654321"),
+                        createMember(7L, "No Phone", "no.phone@example.com", null));
+
+        MemberSnapshotFile.write(path, 7L, members);
+        MemberSnapshotFile.Snapshot snapshot = MemberSnapshotFile.read(path);
+
+        assertEquals(7L, snapshot.stamp());
+        assertEquals(3, snapshot.members().size());
+        for (int i = 0; i < members.size(); i++) {
+            Member expected = members.get(i);
+            Member actual = snapshot.members().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.name, actual.name);
+            assertEquals(expected.email, actual.email);
+            assertEquals(expected.phoneNumber, actual.phoneNumber);
+        }
+    }
+
+    @Test
+    public void testReadMissingFileReturnsNull() throws IOException {
+        assertNull(MemberSnapshotFile.read(dir.resolve("absent.snapshot")));
+    }
+
+    @Test
+    public void testReadRejectsTruncatedFile() throws IOException {
+        Path path = dir.resolve("members.snapshot");
+        MemberSnapshotFile.write(
+                path,
+                0L,
+                List.of(createMember(0L, "John Smith", "john@example.com", "2125551212")));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+
+        assertThrows(IOException.class, () -> MemberSnapshotFile.read(path));
+    }
+}
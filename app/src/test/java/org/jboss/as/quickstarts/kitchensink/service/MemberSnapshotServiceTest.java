@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.jboss.as.quickstarts.kitchensink.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+
+public class MemberSnapshotServiceTest {
+
+    private MemberSnapshotService service(MemberIdGenerator.Strategy strategy) {
+        MemberSnapshotService service = new MemberSnapshotService();
+        service.memberIds = new MemberIdGenerator();
+        service.memberIds.strategy = strategy;
+        service.catchUpOverlap = 1000;
+        service.catchUpWindow = Duration.ofMinutes(2);
+        return service;
+    }
+
+    @Test
+    public void testCatchUpOverlapIsAnIdCountForSequenceIds() {
+        assertEquals(4000L, service(MemberIdGenerator.Strategy.SEQUENCE).catchUpFloor(5000L));
+        // A sequence stamp from before switching to snowflake ids.
+        assertEquals(4000L, service(MemberIdGenerator.Strategy.SNOWFLAKE).catchUpFloor(5000L));
+    }
+
+    @Test
+    public void testCatchUpOverlapIsATimeWindowForSnowflakeIds() {
+        long stampedAt = SnowflakeIdGenerator.EPOCH_MILLIS + Duration.ofDays(300).toMillis();
+        long stamp = new SnowflakeIdGenerator(513, 0L, Long.MAX_VALUE, () -> stampedAt).nextId();
+
+        long floor = service(MemberIdGenerator.Strategy.SNOWFLAKE).catchUpFloor(stamp);
+
+        assertEquals(
+                stampedAt - Duration.ofMinutes(2).toMillis(),
+                SnowflakeIdGenerator.timestampOf(floor + 1));
+        // Any node's id from within the window is read again.
+        long otherNode =
+                new SnowflakeIdGenerator(1, 0L, Long.MAX_VALUE, () -> stampedAt - 60_000).nextId();
+        assertTrue(otherNode > floor && otherNode < stamp);
+    }
+}
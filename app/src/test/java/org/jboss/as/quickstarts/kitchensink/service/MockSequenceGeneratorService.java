@@ -47,6 +47,20 @@ public class MockSequenceGeneratorService extends SequenceGeneratorService {
         return sequences.computeIfAbsent(sequenceName, k -> new AtomicLong(-1L)).incrementAndGet();
     }
 
+    @Override
+    public long reserveBlock(String sequenceName, int size) {
+        return sequences.computeIfAbsent(sequenceName, k -> new AtomicLong(-1L)).addAndGet(size)
+                - size
+                + 1;
+    }
+
+    @Override
+    public void advanceTo(String sequenceName, long value) {
+        sequences
+                .computeIfAbsent(sequenceName, k -> new AtomicLong(-1L))
+                .accumulateAndGet(value, Math::max);
+    }
+
     @Override
     public void initializeSequence(String sequenceName, long initialValue) {
         // Store the initial value, adjusted by -1 because getNextSequence pre-increments.
@@ -0,0 +1,110 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+public class MongoPoolMonitorTest {
+
+    private final ServerId serverId = new ServerId(new ClusterId(), new ServerAddress());
+
+    private MongoPoolMonitor createMonitor() {
+        MongoPoolMonitor monitor = new MongoPoolMonitor();
+        monitor.registry = new SimpleMeterRegistry();
+        monitor.init();
+        return monitor;
+    }
+
+    private void checkOut(MongoPoolMonitor monitor) {
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+        monitor.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(serverId)));
+    }
+
+    @Test
+    public void testSaturationFollowsCheckedOutConnections() {
+        MongoPoolMonitor monitor = createMonitor();
+        monitor.connectionPoolCreated(
+                new ConnectionPoolCreatedEvent(
+                        serverId, ConnectionPoolSettings.builder().maxSize(4).build()));
+
+        checkOut(monitor);
+        checkOut(monitor);
+        assertEquals(0.5, monitor.saturation());
+        assertEquals(2, monitor.checkedOut());
+
+        monitor.connectionCheckedIn(new ConnectionCheckedInEvent(new ConnectionId(serverId)));
+        assertEquals(0.25, monitor.saturation());
+        assertEquals(
+                2,
+                monitor.registry
+                        .get("mongodb.pool.checkout.wait")
+                        .tag("status", "success")
+                        .timer()
+                        .count());
+        assertEquals(1.0, monitor.registry.get("mongodb.pool.in.use").gauge().value());
+    }
+
+    @Test
+    public void testFullPoolWithWaitersIsSaturated() {
+        MongoPoolMonitor monitor = createMonitor();
+        monitor.connectionPoolCreated(
+                new ConnectionPoolCreatedEvent(
+                        serverId, ConnectionPoolSettings.builder().maxSize(1).build()));
+
+        checkOut(monitor);
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+
+        assertEquals(1, monitor.waiting());
+        assertEquals(1.0, monitor.saturation());
+    }
+
+    @Test
+    public void testTracksOpenConnectionsAgainstMinimumSize() {
+        MongoPoolMonitor monitor = createMonitor();
+        monitor.connectionPoolCreated(
+                new ConnectionPoolCreatedEvent(
+                        serverId, ConnectionPoolSettings.builder().minSize(2).maxSize(4).build()));
+
+        monitor.connectionCreated(new ConnectionCreatedEvent(new ConnectionId(serverId)));
+        assertFalse(monitor.atMinimumSize());
+        monitor.connectionCreated(new ConnectionCreatedEvent(new ConnectionId(serverId)));
+        assertTrue(monitor.atMinimumSize());
+        assertEquals(2, monitor.openConnections());
+
+        monitor.connectionClosed(
+                new ConnectionClosedEvent(
+                        new ConnectionId(serverId), ConnectionClosedEvent.Reason.STALE));
+        assertFalse(monitor.atMinimumSize());
+        assertEquals(1, monitor.openConnections());
+    }
+}
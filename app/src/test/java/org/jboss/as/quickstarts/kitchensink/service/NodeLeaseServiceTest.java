@@ -0,0 +1,190 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.result.UpdateResult;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.jboss.as.quickstarts.kitchensink.model.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+
+public class NodeLeaseServiceTest {
+
+    /** Lease documents by node id, updated like the conditional upsert would. */
+    private final Map<Integer, Document> leases = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> collection = mock(MongoCollection.class);
+
+    private NodeLeaseService createService(Duration ttl, long maxId) {
+        when(collection.findOneAndUpdate(
+                        any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class)))
+                .thenAnswer(
+                        invocation -> {
+                            int nodeId = nodeIdOf(invocation.getArgument(0));
+                            BsonDocument set =
+                                    ((Bson) invocation.getArgument(1))
+                                            .toBsonDocument()
+                                            .getDocument("$set");
+                            Document previous = leases.get(nodeId);
+                            if (previous != null
+                                    && previous.getLong("expiresAt")
+                                            >= System.currentTimeMillis()) {
+                                throw duplicateKey();
+                            }
+                            leases.put(
+                                    nodeId,
+                                    new Document("_id", nodeId)
+                                            .append("owner", set.getString("owner").getValue())
+                                            .append(
+                                                    "expiresAt",
+                                                    set.getInt64("expiresAt").getValue()));
+                            return previous;
+                        });
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(database.getCollection("node_leases")).thenReturn(collection);
+        NodeLeaseService service = new NodeLeaseService();
+        service.mongoClient = mock(MongoClient.class);
+        when(service.mongoClient.getDatabase("test")).thenReturn(database);
+        service.databaseName = "test";
+        service.memberRepository = mock(MemberRepository.class);
+        when(service.memberRepository.maxId()).thenReturn(maxId);
+        service.ttl = ttl;
+        return service;
+    }
+
+    private static int nodeIdOf(Bson filter) {
+        return filter.toBsonDocument()
+                .getArray("$and")
+                .get(0)
+                .asDocument()
+                .getInt32("_id")
+                .getValue();
+    }
+
+    private static MongoCommandException duplicateKey() {
+        return new MongoCommandException(
+                new BsonDocument("ok", new BsonInt32(0))
+                        .append("code", new BsonInt32(11000))
+                        .append("errmsg", new BsonString("E11000 duplicate key error")),
+                new ServerAddress());
+    }
+
+    private void leaseToLiveNodes(int except) {
+        for (int nodeId = 0; nodeId <= SnowflakeIdGenerator.MAX_NODE_ID; nodeId++) {
+            if (nodeId != except) {
+                leases.put(
+                        nodeId,
+                        new Document("_id", nodeId)
+                                .append("owner", "other")
+                                .append("expiresAt", Long.MAX_VALUE));
+            }
+        }
+    }
+
+    @Test
+    public void testNewIdsStartAboveExistingIds() {
+        long now = System.currentTimeMillis();
+        // An id from a node whose clock runs ten seconds ahead.
+        long maxId = SnowflakeIdGenerator.minimumId(now + 10_000) + 5;
+        NodeLeaseService service = createService(Duration.ofSeconds(60), maxId);
+
+        assertTrue(service.generator().nextId() > maxId);
+        assertTrue(createService(Duration.ofSeconds(60), 500L).generator().nextId() > 500L);
+    }
+
+    @Test
+    public void testRefusesExistingIdsTooFarAheadOfTheClock() {
+        long maxId = SnowflakeIdGenerator.minimumId(System.currentTimeMillis() + 120_000);
+        NodeLeaseService service = createService(Duration.ofSeconds(60), maxId);
+
+        assertThrows(IllegalStateException.class, service::generator);
+    }
+
+    @Test
+    public void testSkipsNodeIdsHeldByLiveNodes() {
+        leaseToLiveNodes(7);
+        NodeLeaseService service = createService(Duration.ofSeconds(60), -1L);
+
+        assertEquals(7, service.generator().nodeId());
+        assertEquals(service.owner, leases.get(7).getString("owner"));
+
+        leaseToLiveNodes(-1);
+        assertThrows(
+                IllegalStateException.class, createService(Duration.ofSeconds(60), -1L)::generator);
+    }
+
+    @Test
+    public void testHeartbeatRenewsTheLeaseOrReplacesALostOne() {
+        NodeLeaseService service = createService(Duration.ofSeconds(60), -1L);
+        SnowflakeIdGenerator leased = service.generator();
+
+        when(collection.updateOne(any(Bson.class), any(Bson.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        service.heartbeat();
+        assertSame(leased, service.generator());
+
+        when(collection.updateOne(any(Bson.class), any(Bson.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        service.heartbeat();
+        assertThrows(IllegalStateException.class, leased::nextId);
+        assertNotSame(leased, service.generator());
+    }
+
+    @Test
+    public void testExpiredLeaseIsLeasedAgain() throws InterruptedException {
+        NodeLeaseService service = createService(Duration.ofMillis(200), -1L);
+        SnowflakeIdGenerator leased = service.generator();
+
+        when(collection.updateOne(any(Bson.class), any(Bson.class)))
+                .thenThrow(new MongoTimeoutException("MongoDB unreachable"));
+        service.heartbeat();
+        // Still valid until its expiry.
+        assertSame(leased, service.generator());
+
+        Thread.sleep(250);
+        assertTrue(leased.isExpired());
+        SnowflakeIdGenerator again = service.generator();
+        assertNotSame(leased, again);
+        assertFalse(again.isExpired());
+        assertTrue(again.nextId() > 0);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapMemberStoreTest {
+
+    private Member createMember(long id, String name, String email, String phone) {
+        Member member = new Member(name, email, phone);
+        member.setId(id);
+        return member;
+    }
+
+    @Test
+    public void testStoresAndDecodesMembers() {
+        OffHeapMemberStore store = new OffHeapMemberStore(1024);
+        assertTrue(store.put(createMember(7L, "Zoë Ångström", "zoe@example.com", "0987654321")));
+        assertTrue(store.put(createMember(0L, "No Phone", "no.phone@example.com", null)));
+        assertFalse(store.put(createMember(7L, "Someone Else", "else@example.com", "1")));
+
+        Member zoe = store.get(7L);
+        assertEquals("Zoë Ångström", zoe.name);
+        assertEquals("zoe@example.com", zoe.email);
+        assertEquals("0987654321", zoe.phoneNumber);
+        assertNull(store.get(0L).phoneNumber);
+        assertNull(store.get(8L));
+        assertEquals(2, store.size());
+        assertEquals(7L, store.maxId());
+    }
+
+    @Test
+    public void testGrowsAndKeepsNameOrderAcrossWrites() {
+        // Small chunks, so records spread over many of them and the id table resizes repeatedly.
+        OffHeapMemberStore store = new OffHeapMemberStore(1024);
+        Random random = new Random(42);
+        List<Member> expected = new ArrayList<>();
+        for (long id = 0; id < 5000; id++) {
+            Member member =
+                    createMember(
+                            id,
+                            "Name " + (char) ('A' + random.nextInt(26)) + random.nextInt(50),
+                            "member" + id + "@example.com",
+                            "2125551212");
+            expected.add(member);
+            store.put(member);
+            if (id % 1000 == 0) {
+                // Reading the index in between merges what was added so far.
+                assertEquals(id + 1, store.byName().size());
+            }
+        }
+        expected.sort(Comparator.comparing((Member m) -> m.name).thenComparing(Member::getId));
+
+        List<Member> byName = store.byName();
+        assertEquals(expected.size(), byName.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), byName.get(i).getId());
+        }
+        for (long id = 0; id < 5000; id++) {
+            assertEquals("member" + id + "@example.com", store.get(id).email);
+        }
+        assertTrue(store.offHeapBytes() > 5000 * 30);
+    }
+
+    @Test
+    public void testRejectsMembersItCannotStore() {
+        OffHeapMemberStore store = new OffHeapMemberStore(1024);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> store.put(new Member("No Id", "no.id@example.com", "2125551212")));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> store.put(createMember(1L, "x".repeat(2000), "big@example.com", null)));
+        assertEquals(0, store.size());
+    }
+}
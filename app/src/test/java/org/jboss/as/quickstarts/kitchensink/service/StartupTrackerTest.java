@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class StartupTrackerTest {
+
+    @Test
+    public void testFailingTaskIsRetriedUntilItSucceeds() {
+        StartupTracker tracker = new StartupTracker();
+        tracker.registry = new SimpleMeterRegistry();
+        tracker.initialBackoff = Duration.ofMillis(1);
+        tracker.maxBackoff = Duration.ofMillis(4);
+        AtomicInteger attempts = new AtomicInteger();
+        StartupTask task =
+                new StartupTask() {
+                    @Override
+                    public String name() {
+                        return "flaky";
+                    }
+
+                    @Override
+                    public int order() {
+                        return 0;
+                    }
+
+                    @Override
+                    public void run() {
+                        if (attempts.incrementAndGet() < 3) {
+                            throw new IllegalStateException("MongoDB timed out");
+                        }
+                        assertEquals(List.of("flaky"), tracker.failedTasks());
+                    }
+                };
+
+        assertTrue(tracker.runUntilSuccessful(task));
+        assertEquals(3, attempts.get());
+        assertTrue(tracker.failedTasks().isEmpty());
+        assertTrue(tracker.phaseDurationsMillis().containsKey("flaky"));
+    }
+}
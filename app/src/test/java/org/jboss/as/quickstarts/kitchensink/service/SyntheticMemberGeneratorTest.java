@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.validation.Validator;
+import java.util.HashSet;
+import java.util.Set;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class SyntheticMemberGeneratorTest {
+
+    @Inject Validator validator;
+
+    @Test
+    public void testGeneratedMembersAreValidAndUnique() {
+        Set<String> names = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        long[] indexes = new long[2_000];
+        for (int i = 0; i < 1_000; i++) {
+            indexes[i] = i;
+            indexes[1_000 + i] = SyntheticMemberGenerator.MAX_INDEX - 1 - i * 7_919L;
+        }
+        for (long index : indexes) {
+            Member member = SyntheticMemberGenerator.create(index);
+            assertTrue(
+                    validator.validate(member).isEmpty(),
+                    "Synthetic member " + index + " is not valid: " + member.name);
+            assertTrue(names.add(member.name), "Duplicate name " + member.name);
+            assertTrue(emails.add(member.email), "Duplicate email " + member.email);
+        }
+    }
+
+    @Test
+    public void testGenerationIsDeterministic() {
+        Member first = SyntheticMemberGenerator.create(123_456L);
+        Member second = SyntheticMemberGenerator.create(123_456L);
+        assertEquals(first.name, second.name);
+        assertEquals(first.email, second.email);
+        assertEquals(first.phoneNumber, second.phoneNumber);
+    }
+}
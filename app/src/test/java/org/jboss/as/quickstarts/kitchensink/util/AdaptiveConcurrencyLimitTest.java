@@ -0,0 +1,94 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    public void testRequestsOverTheLimitAreRejected() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10);
+
+        AdaptiveConcurrencyLimit.Permit first = limit.tryAcquire();
+        AdaptiveConcurrencyLimit.Permit second = limit.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(limit.tryAcquire());
+        assertEquals(1, limit.rejected());
+
+        first.ignore();
+        first.ignore(); // releasing twice has no effect
+        assertEquals(1, limit.inFlight());
+        assertNotNull(limit.tryAcquire());
+    }
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsSteadyAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200);
+
+        feed(limit, FAST, 200);
+        int grown = limit.limit();
+        assertTrue(grown > 20, "limit " + grown);
+
+        feed(limit, SLOW, 30);
+        int shrunk = limit.limit();
+        assertTrue(shrunk < grown / 2, "limit " + shrunk + " after " + grown);
+
+        feed(limit, FAST, 300);
+        assertTrue(limit.limit() > shrunk, "limit " + limit.limit() + " after " + shrunk);
+    }
+
+    @Test
+    public void testDropsShrinkTheLimitAndItStaysWithinBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 4, 60);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, limit.limit(), true);
+        }
+        assertEquals(4, limit.limit());
+
+        feed(limit, FAST, 1000);
+        assertEquals(60, limit.limit());
+    }
+
+    @Test
+    public void testSamplesFromAnIdleSystemDoNotChangeTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(i % 2 == 0 ? FAST : SLOW, 1, false);
+        }
+        assertEquals(20, limit.limit());
+    }
+
+    /** Samples of a saturated system: every request started with all permits in use. */
+    private static void feed(AdaptiveConcurrencyLimit limit, long rttNanos, int samples) {
+        for (int i = 0; i < samples; i++) {
+            limit.onSample(rttNanos, limit.limit(), false);
+        }
+    }
+}
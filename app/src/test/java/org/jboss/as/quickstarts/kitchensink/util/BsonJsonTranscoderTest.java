@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.bson.BsonBinary;
+import org.bson.BsonSerializationException;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+public class BsonJsonTranscoderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final BsonJsonTranscoder transcoder = new BsonJsonTranscoder(Map.of("_id", "id"));
+
+    @Test
+    public void testMemberDocumentMatchesJacksonShape() throws IOException {
+        Document member =
+                new Document("_id", 42L)
+                        .append("name", "Zoë \"Q\" O'Brien\\ 😀")
+                        .append("email", "zoe@example.com")
+                        .append("phoneNumber", "1234567890");
+
+        // Twice: the second run takes the field names from the learned table.
+        for (int i = 0; i < 2; i++) {
+            assertEquals(
+                    "{\"id\":42,\"name\":\"Zoë \\\"Q\\\" O'Brien\\\\ 😀\","
+                            + "\"email\":\"zoe@example.com\",\"phoneNumber\":\"1234567890\"}",
+                    transcode(member));
+        }
+    }
+
+    @Test
+    public void testOnlyTopLevelFieldsAreRenamed() throws IOException {
+        Document document =
+                new Document("_id", 1)
+                        .append("nested", new Document("_id", 2))
+                        .append("list", List.of(new Document("_id", 3), "x"));
+
+        assertEquals(
+                MAPPER.readTree("{\"id\":1,\"nested\":{\"_id\":2},\"list\":[{\"_id\":3},\"x\"]}"),
+                MAPPER.readTree(transcode(document)));
+    }
+
+    @Test
+    public void testScalarTypes() throws IOException {
+        ObjectId objectId = new ObjectId();
+        Document document =
+                new Document("double", 1.5)
+                        .append("int", 7)
+                        .append("long", 1L << 40)
+                        .append("bool", true)
+                        .append("null", null)
+                        .append("date", new Date(1_700_000_000_000L))
+                        .append("oid", objectId)
+                        .append("decimal", new Decimal128(new BigDecimal("12.340")))
+                        .append("nan", Decimal128.NaN);
+
+        String text = transcode(document);
+        JsonNode json = MAPPER.readTree(text);
+
+        assertEquals(1.5, json.get("double").doubleValue());
+        assertEquals(7, json.get("int").intValue());
+        assertEquals(1L << 40, json.get("long").longValue());
+        assertEquals(true, json.get("bool").booleanValue());
+        assertEquals(true, json.get("null").isNull());
+        assertEquals(1_700_000_000_000L, json.get("date").longValue());
+        assertEquals(objectId.toHexString(), json.get("oid").textValue());
+        assertTrue(text.contains("\"decimal\":12.340,"), text);
+        assertEquals("NaN", json.get("nan").textValue());
+    }
+
+    @Test
+    public void testUnsupportedTypeIsRejected() {
+        Document document = new Document("data", new BsonBinary(new byte[] {1, 2}));
+
+        assertThrows(BsonSerializationException.class, () -> transcode(document));
+    }
+
+    private String transcode(Document document) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+            transcoder.write(new RawBsonDocument(document, new DocumentCodec()), generator);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
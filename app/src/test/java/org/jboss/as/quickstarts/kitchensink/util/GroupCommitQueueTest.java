@@ -0,0 +1,136 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class GroupCommitQueueTest {
+
+    @Test
+    public void testItemsAreWrittenInBatchesOfAtMostMaxBatch() throws Exception {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        List<Integer> sizes = new CopyOnWriteArrayList<>();
+        try (GroupCommitQueue<Integer> queue =
+                new GroupCommitQueue<>(
+                        "test-group-commit",
+                        4,
+                        Duration.ofSeconds(1),
+                        batch -> {
+                            batches.add(List.copyOf(batch));
+                            return Map.of();
+                        },
+                        sizes::add)) {
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(queue.submit(i));
+            }
+            for (CompletableFuture<Void> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(List.of(List.of(0, 1, 2, 3), List.of(4, 5, 6, 7)), batches);
+        assertEquals(List.of(4, 4), sizes);
+    }
+
+    @Test
+    public void testPartialBatchIsWrittenAfterMaxWait() throws Exception {
+        try (GroupCommitQueue<String> queue =
+                new GroupCommitQueue<>(
+                        "test-group-commit",
+                        100,
+                        Duration.ofMillis(20),
+                        batch -> Map.of(),
+                        n -> {})) {
+            queue.submit("only").get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testEachCallerGetsItsOwnItemsFailure() throws Exception {
+        IllegalArgumentException duplicate = new IllegalArgumentException("duplicate");
+        try (GroupCommitQueue<String> queue =
+                new GroupCommitQueue<>(
+                        "test-group-commit",
+                        3,
+                        Duration.ofSeconds(1),
+                        batch -> Map.of(batch.indexOf("b"), duplicate),
+                        n -> {})) {
+            CompletableFuture<Void> a = queue.submit("a");
+            CompletableFuture<Void> b = queue.submit("b");
+            CompletableFuture<Void> c = queue.submit("c");
+
+            a.get(5, TimeUnit.SECONDS);
+            c.get(5, TimeUnit.SECONDS);
+            Exception e = assertThrows(IllegalArgumentException.class, () -> queue.write("b"));
+            assertSame(duplicate, e);
+            ExecutionException failed =
+                    assertThrows(ExecutionException.class, () -> b.get(5, TimeUnit.SECONDS));
+            assertSame(duplicate, failed.getCause());
+        }
+    }
+
+    @Test
+    public void testBatchFailureFailsEveryItemAndQueueKeepsWorking() throws Exception {
+        IllegalStateException down = new IllegalStateException("down");
+        AtomicBoolean failNext = new AtomicBoolean(true);
+        try (GroupCommitQueue<String> queue =
+                new GroupCommitQueue<>(
+                        "test-group-commit",
+                        2,
+                        Duration.ofSeconds(1),
+                        batch -> {
+                            if (failNext.getAndSet(false)) {
+                                throw down;
+                            }
+                            return Map.of();
+                        },
+                        n -> {})) {
+            CompletableFuture<Void> first = queue.submit("a");
+            CompletableFuture<Void> second = queue.submit("b");
+            for (CompletableFuture<Void> result : List.of(first, second)) {
+                ExecutionException e =
+                        assertThrows(
+                                ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertSame(down, e.getCause());
+            }
+            queue.submit("c");
+            queue.submit("d").get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testSubmitAfterCloseFails() {
+        GroupCommitQueue<String> queue =
+                new GroupCommitQueue<>(
+                        "test-group-commit", 1, Duration.ZERO, batch -> Map.of(), n -> {});
+        queue.close();
+        assertThrows(IllegalStateException.class, () -> queue.submit("late"));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class HedgedCallTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HedgedCall hedgedCall = new HedgedCall(executor, Duration.ofMillis(20));
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFastCallIsNotHedged() throws Exception {
+        AtomicInteger hedges = new AtomicInteger();
+
+        HedgedCall.Result<Optional<String>> result =
+                hedgedCall.call(
+                        () -> Optional.of("first"),
+                        () -> {
+                            hedges.incrementAndGet();
+                            return Optional.of("hedge");
+                        },
+                        Optional::isPresent);
+
+        assertEquals(Optional.of("first"), result.value());
+        assertFalse(result.hedged());
+        assertEquals(0, hedges.get());
+    }
+
+    @Test
+    public void testSlowCallIsOvertakenByTheHedge() throws Exception {
+        HedgedCall.Result<Optional<String>> result =
+                hedgedCall.call(
+                        () -> {
+                            Thread.sleep(2_000);
+                            return Optional.of("first");
+                        },
+                        () -> Optional.of("hedge"),
+                        Optional::isPresent);
+
+        assertEquals(Optional.of("hedge"), result.value());
+        assertTrue(result.hedgeWon());
+    }
+
+    @Test
+    public void testRejectedHedgeAnswerWaitsForTheFirstCall() throws Exception {
+        HedgedCall.Result<Optional<String>> result =
+                hedgedCall.call(
+                        () -> {
+                            Thread.sleep(100);
+                            return Optional.of("first");
+                        },
+                        Optional::empty,
+                        Optional::isPresent);
+
+        assertEquals(Optional.of("first"), result.value());
+        assertTrue(result.hedged());
+        assertFalse(result.hedgeWon());
+    }
+
+    @Test
+    public void testFailsOnlyWhenBothCallsFail() throws Exception {
+        IOException failure = new IOException("primary down");
+
+        HedgedCall.Result<Optional<String>> recovered =
+                hedgedCall.call(
+                        () -> {
+                            throw failure;
+                        },
+                        () -> Optional.of("hedge"),
+                        Optional::isPresent);
+        assertEquals(Optional.of("hedge"), recovered.value());
+
+        IOException thrown =
+                assertThrows(
+                        IOException.class,
+                        () ->
+                                hedgedCall.<Optional<String>>call(
+                                        () -> {
+                                            throw failure;
+                                        },
+                                        () -> {
+                                            throw new IOException("secondary down");
+                                        },
+                                        Optional::isPresent));
+        assertSame(failure, thrown);
+    }
+}
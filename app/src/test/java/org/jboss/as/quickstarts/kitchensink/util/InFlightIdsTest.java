@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class InFlightIdsTest {
+
+    @Test
+    public void testSettledIdsCountUntilTheirGraceIsOver() {
+        AtomicLong nanos = new AtomicLong();
+        InFlightIds ids = new InFlightIds(Duration.ofSeconds(1), nanos::get);
+        assertEquals(Long.MAX_VALUE, ids.lowest());
+
+        ids.add(11L);
+        ids.add(10L);
+        assertEquals(10L, ids.lowest());
+
+        ids.settle(10L);
+        nanos.addAndGet(Duration.ofMillis(999).toNanos());
+        assertEquals(10L, ids.lowest());
+        nanos.addAndGet(Duration.ofMillis(1).toNanos());
+        assertEquals(11L, ids.lowest());
+
+        ids.remove(11L);
+        assertEquals(Long.MAX_VALUE, ids.lowest());
+    }
+
+    @Test
+    public void testSameIdAddedTwiceCountsUntilRemovedTwice() {
+        InFlightIds ids = new InFlightIds(Duration.ZERO);
+        ids.add(5L);
+        ids.add(5L);
+        ids.remove(5L);
+        assertEquals(5L, ids.lowest());
+        ids.settle(5L);
+        assertEquals(Long.MAX_VALUE, ids.lowest());
+    }
+
+    @Test
+    public void testSettledIdsAreDroppedWithoutAskingForTheLowest() {
+        AtomicLong nanos = new AtomicLong();
+        InFlightIds ids = new InFlightIds(Duration.ofSeconds(1), nanos::get);
+        for (long id = 0; id < 1000; id++) {
+            ids.add(id);
+            ids.settle(id);
+            nanos.addAndGet(Duration.ofMillis(10).toNanos());
+        }
+        // Only the ids settled within the last second are still counted.
+        assertEquals(100, ids.size());
+    }
+}
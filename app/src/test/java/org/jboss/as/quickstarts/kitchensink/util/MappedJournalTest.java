@@ -0,0 +1,206 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedJournalTest {
+
+    private static final MappedJournal.Retention KEEP_ALL =
+            new MappedJournal.Retention(Long.MAX_VALUE, Duration.ofDays(365));
+
+    @TempDir Path dir;
+
+    private MappedJournal open(int segmentSize, MappedJournal.Retention retention, Clock clock)
+            throws IOException {
+        return new MappedJournal(
+                dir, segmentSize, Duration.ofSeconds(10), retention, n -> {}, clock);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readAll(JournalReader reader, long from) throws IOException {
+        List<String> records = new ArrayList<>();
+        reader.poll(
+                from,
+                Integer.MAX_VALUE,
+                (offset, payload) ->
+                        records.add(StandardCharsets.UTF_8.decode(payload).toString()));
+        return records;
+    }
+
+    @Test
+    public void testReaderTailsAppendsWithoutCopying() throws IOException {
+        try (MappedJournal journal = open(4096, KEEP_ALL, Clock.systemUTC())) {
+            JournalReader reader = new JournalReader(dir);
+            long first = journal.append(bytes("one"));
+            long second = journal.append(bytes("two"));
+            assertEquals(reader.firstOffset(), first);
+
+            List<Long> offsets = new ArrayList<>();
+            long next =
+                    reader.poll(
+                            first,
+                            10,
+                            (offset, payload) -> {
+                                assertTrue(payload.isDirect());
+                                assertTrue(payload.isReadOnly());
+                                offsets.add(offset);
+                            });
+            assertEquals(List.of(first, second), offsets);
+            assertEquals(journal.end(), next);
+            assertEquals(next, reader.poll(next, 10, (offset, payload) -> {}));
+
+            journal.append(bytes("three"));
+            assertEquals(List.of("three"), readAll(reader, next));
+        }
+    }
+
+    @Test
+    public void testRollsOverSegmentsAndResumesAfterReopen() throws IOException {
+        try (MappedJournal journal = open(128, KEEP_ALL, Clock.systemUTC())) {
+            for (int i = 0; i < 20; i++) {
+                journal.append(bytes("record-" + i));
+            }
+        }
+        assertTrue(MappedJournal.segments(dir).size() > 1);
+
+        try (MappedJournal journal = open(128, KEEP_ALL, Clock.systemUTC())) {
+            journal.append(bytes("record-20"));
+        }
+        List<String> records = readAll(new JournalReader(dir), 0L);
+        assertEquals(21, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals("record-" + i, records.get(i));
+        }
+    }
+
+    @Test
+    public void testReopenDiscardsTornRecord() throws IOException {
+        long end;
+        try (MappedJournal journal = open(4096, KEEP_ALL, Clock.systemUTC())) {
+            journal.append(bytes("intact"));
+            end = journal.end();
+        }
+        // A crash after the length was written but before the payload reached the disk.
+        Path segment = MappedJournal.segments(dir).firstEntry().getValue();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(
+                    ByteBuffer.allocate(16).putInt(40).putInt(12345).putLong(-1L).flip(), end);
+        }
+        assertThrows(IOException.class, () -> readAll(new JournalReader(dir), 0L));
+
+        try (MappedJournal journal = open(4096, KEEP_ALL, Clock.systemUTC())) {
+            assertEquals(end, journal.end());
+            journal.append(bytes("after"));
+        }
+        assertEquals(List.of("intact", "after"), readAll(new JournalReader(dir), 0L));
+    }
+
+    @Test
+    public void testRetentionDeletesOldestSegmentsBySizeAndAge() throws IOException {
+        MutableClock clock = new MutableClock();
+        try (MappedJournal journal =
+                open(128, new MappedJournal.Retention(128 * 3, Duration.ofHours(1)), clock)) {
+            for (int i = 0; i < 40; i++) {
+                journal.append(bytes("record-" + i));
+            }
+            // Never more than the limit, plus the segment just created.
+            assertTrue(MappedJournal.segments(dir).size() <= 4);
+            List<String> records = readAll(new JournalReader(dir), 0L);
+            assertFalse(records.contains("record-0"));
+            assertEquals("record-39", records.get(records.size() - 1));
+
+            clock.advance(Duration.ofHours(2));
+            journal.enforceRetention();
+            assertEquals(1, MappedJournal.segments(dir).size());
+        }
+    }
+
+    @Test
+    public void testSyncWaitsForSharedFsync() throws Exception {
+        AtomicInteger synced = new AtomicInteger();
+        try (MappedJournal journal =
+                new MappedJournal(
+                        dir,
+                        4096,
+                        Duration.ofHours(1),
+                        KEEP_ALL,
+                        synced::addAndGet,
+                        Clock.systemUTC())) {
+            journal.append(bytes("one"));
+            long second = journal.append(bytes("two"));
+            journal.sync(second);
+            assertEquals(2, synced.get());
+            journal.sync(second);
+            assertEquals(2, synced.get());
+        }
+    }
+
+    @Test
+    public void testRejectsRecordsThatDoNotFitASegment() throws IOException {
+        try (MappedJournal journal = open(128, KEEP_ALL, Clock.systemUTC())) {
+            assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[0]));
+            assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[128]));
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public java.time.ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}
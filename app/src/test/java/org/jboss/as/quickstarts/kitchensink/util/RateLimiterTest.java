@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testBurstThenSustainedRate() {
+        RateLimiter limiter = new RateLimiter(10, 5);
+        long now = 1_000 * SECOND;
+
+        for (int i = 4; i >= 0; i--) {
+            RateLimiter.Decision decision = limiter.tryAcquire("client", now);
+            assertTrue(decision.allowed());
+            assertEquals(i, decision.remaining());
+        }
+        RateLimiter.Decision throttled = limiter.tryAcquire("client", now);
+        assertFalse(throttled.allowed());
+        assertEquals(SECOND / 10, throttled.retryAfterNanos());
+        assertEquals(SECOND / 2, throttled.resetNanos());
+
+        // One token comes back every 100 ms.
+        assertTrue(limiter.tryAcquire("client", now + SECOND / 10).allowed());
+        assertFalse(limiter.tryAcquire("client", now + SECOND / 10).allowed());
+        assertTrue(limiter.tryAcquire("other", now).allowed());
+    }
+
+    @Test
+    public void testFullBucketsAreEvicted() {
+        RateLimiter limiter = new RateLimiter(10, 5);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("idle", now);
+        limiter.tryAcquire("busy", now + SECOND);
+
+        assertEquals(1, limiter.evictIdle(now + SECOND));
+        assertEquals(1, limiter.size());
+        assertEquals(3, limiter.tryAcquire("busy", now + SECOND).remaining());
+    }
+}
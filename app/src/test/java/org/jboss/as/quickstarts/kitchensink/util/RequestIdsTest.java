@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+
+public class RequestIdsTest {
+
+    @Test
+    public void testIdsAreCrockfordBase32AndUnique() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            String id = RequestIds.newId();
+            assertTrue(id.matches("[0-9A-HJKMNP-TV-Z]{26}"), id);
+            ids.add(id);
+        }
+        assertEquals(10_000, ids.size());
+    }
+
+    @Test
+    public void testIdsAreOrderedByTime() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String earlier = RequestIds.newId(1_700_000_000_000L, random);
+        String later = RequestIds.newId(1_700_000_000_001L, random);
+
+        assertTrue(earlier.substring(0, 10).compareTo(later.substring(0, 10)) < 0);
+        assertEquals("01HF7YAT00", earlier.substring(0, 10));
+    }
+
+    @Test
+    public void testOnlyShortPlainClientIdsAreAccepted() {
+        assertTrue(RequestIds.isValid(RequestIds.newId()));
+        assertTrue(RequestIds.isValid("3f2b8c1e-4d5a-4e6f-9a7b-0c1d2e3f4a5b"));
+        assertTrue(RequestIds.isValid("gateway:req_42.1"));
+        assertFalse(RequestIds.isValid(null));
+        assertFalse(RequestIds.isValid(""));
+        assertFalse(RequestIds.isValid("a".repeat(RequestIds.MAX_LENGTH + 1)));
+        assertFalse(RequestIds.isValid("id\nINFO forged log line"));
+        assertFalse(RequestIds.isValid("id with spaces"));
+        assertFalse(RequestIds.isValid("{\"$where\":1}"));
+    }
+}
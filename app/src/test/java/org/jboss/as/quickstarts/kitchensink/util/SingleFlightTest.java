@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    @Test
+    public void testConcurrentCallersShareOneExecution() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<SingleFlight.Result<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(
+                        pool.submit(
+                                () ->
+                                        flight.execute(
+                                                "key",
+                                                () -> {
+                                                    release.await();
+                                                    return executions.incrementAndGet();
+                                                })));
+            }
+            awaitInFlight(flight, results);
+            release.countDown();
+
+            int shared = 0;
+            for (Future<SingleFlight.Result<Integer>> result : results) {
+                SingleFlight.Result<Integer> value = result.get(10, TimeUnit.SECONDS);
+                assertEquals(1, value.value());
+                shared += value.shared() ? 1 : 0;
+            }
+            assertEquals(1, executions.get());
+            assertEquals(CALLERS - 1, shared);
+            assertEquals(0, flight.inFlight());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotRemembered() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        IllegalStateException failure = new IllegalStateException("boom");
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<SingleFlight.Result<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(
+                        pool.submit(
+                                () ->
+                                        flight.execute(
+                                                "key",
+                                                () -> {
+                                                    release.await();
+                                                    throw failure;
+                                                })));
+            }
+            awaitInFlight(flight, results);
+            release.countDown();
+
+            for (Future<SingleFlight.Result<Integer>> result : results) {
+                Exception e = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+                assertSame(failure, e.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        SingleFlight.Result<Integer> next = flight.execute("key", () -> 42);
+        assertEquals(42, next.value());
+        assertFalse(next.shared());
+    }
+
+    /** Waits until the leader is running and the other callers are (very likely) parked on it. */
+    private static void awaitInFlight(
+            SingleFlight<String, Integer> flight, List<? extends Future<?>> results)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (flight.inFlight() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(flight.inFlight() > 0);
+        Thread.sleep(100);
+        assertTrue(results.stream().noneMatch(Future::isDone));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2023, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    public void testIdLayout() {
+        SnowflakeIdGenerator generator =
+                new SnowflakeIdGenerator(513, 0, Long.MAX_VALUE, () -> NOW);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(first));
+        assertEquals(513, SnowflakeIdGenerator.nodeIdOf(first));
+        assertEquals(first + 1, second);
+        assertTrue(first > 0);
+    }
+
+    @Test
+    public void testIdsKeepIncreasingWhenTheClockGoesBackOrTheSequenceOverflows() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 0, Long.MAX_VALUE, clock::get);
+
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.set(NOW - 10);
+            }
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        // 10,000 ids in one millisecond borrowed two more.
+        assertEquals(NOW + 2, SnowflakeIdGenerator.timestampOf(previous));
+    }
+
+    @Test
+    public void testFloorAndDeadline() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, NOW + 5, NOW + 10, clock::get);
+
+        assertEquals(NOW + 5, SnowflakeIdGenerator.timestampOf(generator.nextId()));
+        assertTrue(generator.nextId() >= SnowflakeIdGenerator.minimumId(NOW + 5));
+
+        clock.set(NOW + 10);
+        assertThrows(IllegalStateException.class, generator::nextId);
+        generator.extendLease(NOW + 20);
+        assertEquals(NOW + 10, SnowflakeIdGenerator.timestampOf(generator.nextId()));
+
+        long floor = generator.close();
+        assertEquals(NOW + 11, floor);
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    public void testConcurrentIdsAreUniqueAcrossNodes() throws Exception {
+        List<SnowflakeIdGenerator> generators =
+                List.of(
+                        new SnowflakeIdGenerator(1, 0, Long.MAX_VALUE, System::currentTimeMillis),
+                        new SnowflakeIdGenerator(2, 0, Long.MAX_VALUE, System::currentTimeMillis));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                SnowflakeIdGenerator generator = generators.get(t % 2);
+                results.add(
+                        pool.submit(
+                                () -> {
+                                    long[] ids = new long[20_000];
+                                    for (int i = 0; i < ids.length; i++) {
+                                        ids[i] = generator.nextId();
+                                    }
+                                    return ids;
+                                }));
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> result : results) {
+                for (long id : result.get()) {
+                    assertTrue(seen.add(id), "duplicate id " + id);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}